@@ -389,6 +389,10 @@ def process_some_plots(path: pathlib.Path, plot: Dict) -> None:
         raise RunnerError(
             f'0 results were read from the file(s) at {path} ({path.absolute})')
 
+    # the thread count is not a JMH param, but it can be plotted like one
+    if primary_param_name == 'threads':
+        dataframe['Param: threads'] = dataframe['Threads']
+
     dataframe = filter_for_benchmarks(
         dataframe, include_benchmarks, exclude_benchmarks)
     if len(dataframe) == 0:
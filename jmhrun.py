@@ -78,7 +78,7 @@ def required(key: str, dict: Dict):
 
 
 option_map = {'batchsize': 'bs',
-              'iterations': 'i', 'forks': 'f', 'time': 'r', 'timeout': 'to',
+              'iterations': 'i', 'forks': 'f', 'threads': 't', 'time': 'r', 'timeout': 'to',
               'timeunit': 'tu', 'verbosity': 'v',
               'warmupbatchsize': 'wbs', 'warmupforks': 'wf',
               'warmupiterations': 'wi', 'warmuptime': 'w',
@@ -233,6 +233,14 @@ def build_jmh_command(config: Dict) -> list:
         for flag_value in flags:
             cmd.append(f'-{flag_value}')
 
+    profilers = optional('profilers', config)
+    if profilers:
+        if not type(profilers) is list:
+            error('Profilers field must be a list of profilers')
+        for profiler in profilers:
+            cmd.append('-prof')
+            cmd.append(str(profiler))
+
     options = optional('options', config)
     if options:
         if not type(options) is dict:
@@ -110,7 +110,7 @@ jobjectArray Java_com_evolvedbinary_jnibench_common_array_AllocateInCppGet2DArra
     env->DeleteLocalRef(jvalue);
   }
 
-  jobjectArray jobj_array = env->NewObjectArray(2, env->FindClass("java/lang/Object"), nullptr);
+  jobjectArray jobj_array = env->NewObjectArray(2, jnibench::g_jni_registry.object_clazz, nullptr);
   if (jobj_array == nullptr) {
     // exception thrown: OutOfMemoryError
     env->DeleteLocalRef(jname_array);
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <jni.h>
+#include <cstring>
+#include <vector>
+
+#include "com_evolvedbinary_jnibench_common_array_AllocateInCppGetColumnar.h"
+#include "FooObject.h"
+#include "Portal.h"
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_array_AllocateInCppGetColumnar
+ * Method:    getColumns
+ * Signature: (J)Lcom/evolvedbinary/jnibench/common/array/AllocateInCppGetColumnar$FooObjectColumns;
+ */
+jobject Java_com_evolvedbinary_jnibench_common_array_AllocateInCppGetColumnar_getColumns(
+    JNIEnv *env, jclass, jlong handle) {
+  const auto& cpp_array = *reinterpret_cast<std::vector<jnibench::FooObject>*>(handle);
+  const jsize len = static_cast<jsize>(cpp_array.size());
+
+  size_t names_len = 0;
+  for (const jnibench::FooObject& foo_obj : cpp_array) {
+    names_len += foo_obj.GetName().size();
+  }
+
+  jlongArray jvalues = env->NewLongArray(len);
+  if (jvalues == nullptr) {
+    // exception thrown: OutOfMemoryError
+    return nullptr;
+  }
+  jbyteArray jnames = env->NewByteArray(static_cast<jsize>(names_len));
+  if (jnames == nullptr) {
+    // exception thrown: OutOfMemoryError
+    env->DeleteLocalRef(jvalues);
+    return nullptr;
+  }
+  jintArray jname_offsets = env->NewIntArray(len + 1);
+  if (jname_offsets == nullptr) {
+    // exception thrown: OutOfMemoryError
+    env->DeleteLocalRef(jvalues);
+    env->DeleteLocalRef(jnames);
+    return nullptr;
+  }
+
+  // nothing below calls back into the JVM, so the three columns can be filled in place
+  auto* values = static_cast<jlong*>(env->GetPrimitiveArrayCritical(jvalues, nullptr));
+  auto* names = static_cast<char*>(env->GetPrimitiveArrayCritical(jnames, nullptr));
+  auto* name_offsets = static_cast<jint*>(env->GetPrimitiveArrayCritical(jname_offsets, nullptr));
+  if (values != nullptr && names != nullptr && name_offsets != nullptr) {
+    jint offset = 0;
+    for (jsize i = 0; i < len; ++i) {
+      const jnibench::FooObject& foo_obj = cpp_array[i];
+      const std::string& name = foo_obj.GetName();
+      values[i] = static_cast<jlong>(foo_obj.GetValue());
+      name_offsets[i] = offset;
+      std::memcpy(names + offset, name.data(), name.size());
+      offset += static_cast<jint>(name.size());
+    }
+    name_offsets[len] = offset;
+  }
+  if (name_offsets != nullptr) {
+    env->ReleasePrimitiveArrayCritical(jname_offsets, name_offsets, 0);
+  }
+  if (names != nullptr) {
+    env->ReleasePrimitiveArrayCritical(jnames, names, 0);
+  }
+  if (values != nullptr) {
+    env->ReleasePrimitiveArrayCritical(jvalues, values, 0);
+  }
+  if (values == nullptr || names == nullptr || name_offsets == nullptr) {
+    // exception thrown: OutOfMemoryError
+    env->DeleteLocalRef(jvalues);
+    env->DeleteLocalRef(jnames);
+    env->DeleteLocalRef(jname_offsets);
+    return nullptr;
+  }
+
+  jobject jcolumns = FooObjectColumnsJni::construct(env, jvalues, jnames, jname_offsets);
+  env->DeleteLocalRef(jvalues);
+  env->DeleteLocalRef(jnames);
+  env->DeleteLocalRef(jname_offsets);
+  return jcolumns;
+}
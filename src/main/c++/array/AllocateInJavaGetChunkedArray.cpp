@@ -0,0 +1,83 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <jni.h>
+#include <vector>
+
+#include "com_evolvedbinary_jnibench_common_array_AllocateInJavaGetChunkedArray.h"
+#include "FooObject.h"
+#include "Portal.h"
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_array_AllocateInJavaGetChunkedArray
+ * Method:    getArraySize
+ * Signature: (J)J
+ */
+jlong Java_com_evolvedbinary_jnibench_common_array_AllocateInJavaGetChunkedArray_getArraySize(
+    JNIEnv *, jclass, jlong handle) {
+  const auto& cpp_array = *reinterpret_cast<std::vector<jnibench::FooObject>*>(handle);
+  return static_cast<jlong>(cpp_array.size());
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_array_AllocateInJavaGetChunkedArray
+ * Method:    getChunk
+ * Signature: (JI[Lcom/evolvedbinary/jnibench/common/array/FooObject;I)V
+ */
+void Java_com_evolvedbinary_jnibench_common_array_AllocateInJavaGetChunkedArray_getChunk(
+    JNIEnv *env, jclass, jlong handle, jint from, jobjectArray jpool, jint len) {
+  const jclass jfoo_obj_clazz = FooObjectJni::getJClass(env);
+  const jfieldID fid_name = FooObjectJni::getNameField(env, jfoo_obj_clazz);
+  const jfieldID fid_value = FooObjectJni::getValueField(env, jfoo_obj_clazz);
+
+  const auto& cpp_array = *reinterpret_cast<std::vector<jnibench::FooObject>*>(handle);
+  if (from < 0 || len < 0 || static_cast<size_t>(from) + static_cast<size_t>(len) > cpp_array.size()) {
+    env->ThrowNew(jnibench::g_jni_registry.index_out_of_bounds_exception_clazz, "Chunk is outside of the array");
+    return;
+  }
+  for (jsize i = 0; i < len; i++) {
+    const jnibench::FooObject& foo_obj = cpp_array[static_cast<size_t>(from + i)];
+
+    jobject jfoo_obj = env->GetObjectArrayElement(jpool, i);
+    if (env->ExceptionCheck()) {
+      // exception thrown: ArrayIndexOutOfBoundsException
+      return;
+    }
+
+    jstring jname = env->NewStringUTF(foo_obj.GetName().c_str());
+    if (jname == nullptr) {
+      // exception thrown: OutOfMemoryError
+      env->DeleteLocalRef(jfoo_obj);
+      return;
+    }
+    env->SetObjectField(jfoo_obj, fid_name, jname);
+    env->DeleteLocalRef(jname);
+
+    env->SetLongField(jfoo_obj, fid_value, static_cast<jlong>(foo_obj.GetValue()));
+
+    env->DeleteLocalRef(jfoo_obj);
+  }
+}
@@ -29,6 +29,7 @@
 
 #include "com_evolvedbinary_jnibench_common_array_FooNativeObjectArray.h"
 #include "FooObject.h"
+#include "../common/JniRegistry.h"
 
 /*
  * Class:     com_evolvedbinary_jnibench_common_array_FooNativeObjectArray
@@ -40,17 +41,58 @@ jlong Java_com_evolvedbinary_jnibench_common_array_FooNativeObjectArray_newFooOb
   auto* cpp_array = new std::vector<jnibench::FooObject>();
   for (jsize i = 0; i < env->GetArrayLength(object_array); ++i) {
     jobject obj = env->GetObjectArrayElement(object_array, i);
-    jclass obj_clazz = env->GetObjectClass(obj);
-    jfieldID name_field_id = env->GetFieldID(obj_clazz, "name" , "Ljava/lang/String;");
-    jfieldID value_field_id = env->GetFieldID(obj_clazz, "value" , "J");
-    jstring jname = (jstring) env->GetObjectField(obj, name_field_id);
+    jstring jname = (jstring) env->GetObjectField(obj, jnibench::g_jni_registry.foo_object_name_fid);
     const char *native_name = env->GetStringUTFChars(jname, nullptr);
-    jlong jvalue = env->GetLongField(obj, value_field_id);
+    jlong jvalue = env->GetLongField(obj, jnibench::g_jni_registry.foo_object_value_fid);
     cpp_array->push_back(jnibench::FooObject(std::string(native_name), static_cast<int64_t>(jvalue)));
+    env->ReleaseStringUTFChars(jname, native_name);
+    env->DeleteLocalRef(jname);
+    env->DeleteLocalRef(obj);
   }
   return reinterpret_cast<jlong>(cpp_array);
 }
 
+/*
+ * Class:     com_evolvedbinary_jnibench_common_array_FooNativeObjectArray
+ * Method:    newSizedFooObjectArray
+ * Signature: (I)J
+ */
+jlong Java_com_evolvedbinary_jnibench_common_array_FooNativeObjectArray_newSizedFooObjectArray
+  (JNIEnv *, jclass, jint size) {
+  return reinterpret_cast<jlong>(new std::vector<jnibench::FooObject>(static_cast<size_t>(size)));
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_array_FooNativeObjectArray
+ * Method:    setFooObjects
+ * Signature: (J[Ljava/lang/Object;II)V
+ */
+void Java_com_evolvedbinary_jnibench_common_array_FooNativeObjectArray_setFooObjects
+  (JNIEnv *env, jclass, jlong handle, jobjectArray object_array, jint from, jint to) {
+  // the array is pre-sized, so concurrent calls for disjoint slices write disjoint elements
+  auto& cpp_array = *reinterpret_cast<std::vector<jnibench::FooObject>*>(handle);
+  std::vector<char> scratch;
+  for (jsize i = from; i < to; ++i) {
+    jobject obj = env->GetObjectArrayElement(object_array, i);
+    if (env->ExceptionCheck()) {
+      // exception thrown: ArrayIndexOutOfBoundsException
+      return;
+    }
+    jstring jname = (jstring) env->GetObjectField(obj, jnibench::g_jni_registry.foo_object_name_fid);
+    jlong jvalue = env->GetLongField(obj, jnibench::g_jni_registry.foo_object_value_fid);
+
+    // copy the name straight into scratch, GetStringUTFRegion also writes a terminating NUL
+    const jsize utf_len = env->GetStringUTFLength(jname);
+    scratch.resize(static_cast<size_t>(utf_len) + 1);
+    env->GetStringUTFRegion(jname, 0, env->GetStringLength(jname), scratch.data());
+
+    cpp_array[static_cast<size_t>(i)] =
+        jnibench::FooObject(std::string(scratch.data(), static_cast<size_t>(utf_len)), static_cast<int64_t>(jvalue));
+    env->DeleteLocalRef(jname);
+    env->DeleteLocalRef(obj);
+  }
+}
+
 /*
  * Class:     com_evolvedbinary_jnibench_common_array_FooNativeObjectArray
  * Method:    disposeInternal
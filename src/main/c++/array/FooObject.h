@@ -30,14 +30,16 @@ namespace jnibench {
 
 class FooObject {
   public:
+    FooObject() : value(0){}
     FooObject(const std::string& n, int64_t v) : name(n), value(v){}
 
     const std::string& GetName() const { return name; }
     int64_t GetValue() const { return value; }
 
   private:
-    const std::string name;
-    const int64_t value;
+    // not const, so that a pre-sized array can be filled by assignment
+    std::string name;
+    int64_t value;
 };
 
 } // namespace jnibench
\ No newline at end of file
@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <cstdint>
+#include <cstring>
+#include <vector>
+
+#include "FooObject.h"
+
+/**
+ * The fixed size record for a FooObject, which FooObjectRecordList reads with a matching StructLayout.
+ * A name of up to FOO_OBJECT_RECORD_INLINE_NAME bytes is stored inline, a longer one after all of the records,
+ * at name_offset from the start of the segment.
+ */
+static const size_t FOO_OBJECT_RECORD_INLINE_NAME = 16;
+
+struct FooObjectRecord {
+  int64_t value;
+  int32_t name_length;
+  int32_t name_offset;
+  char inline_name[FOO_OBJECT_RECORD_INLINE_NAME];
+};
+
+static_assert(sizeof(FooObjectRecord) == 32, "FooObjectRecord must match the Java StructLayout");
+
+/**
+ * @return the size in bytes of the records of the FooObject array, and its out of line names
+ */
+extern "C" int64_t foo_object_records_size(void* handle) {
+  const auto& cpp_array = *reinterpret_cast<std::vector<jnibench::FooObject>*>(handle);
+  int64_t size = static_cast<int64_t>(cpp_array.size() * sizeof(FooObjectRecord));
+  for (const jnibench::FooObject& foo_obj : cpp_array) {
+    const size_t name_length = foo_obj.GetName().size();
+    if (name_length > FOO_OBJECT_RECORD_INLINE_NAME) {
+      size += static_cast<int64_t>(name_length);
+    }
+  }
+  return size;
+}
+
+/**
+ * Write the records of the FooObject array, followed by its out of line names, into dest.
+ *
+ * @return the number of records, or -1 if dest is smaller than foo_object_records_size
+ */
+extern "C" int32_t foo_object_records_fill(void* handle, char* dest, int64_t dest_len) {
+  const auto& cpp_array = *reinterpret_cast<std::vector<jnibench::FooObject>*>(handle);
+  if (dest_len < foo_object_records_size(handle)) {
+    return -1;
+  }
+
+  auto* records = reinterpret_cast<FooObjectRecord*>(dest);
+  size_t name_offset = cpp_array.size() * sizeof(FooObjectRecord);
+  for (size_t i = 0; i < cpp_array.size(); ++i) {
+    const std::string& name = cpp_array[i].GetName();
+    FooObjectRecord& record = records[i];
+    record.value = cpp_array[i].GetValue();
+    record.name_length = static_cast<int32_t>(name.size());
+    if (name.size() <= FOO_OBJECT_RECORD_INLINE_NAME) {
+      record.name_offset = 0;
+      std::memcpy(record.inline_name, name.data(), name.size());
+    } else {
+      record.name_offset = static_cast<int32_t>(name_offset);
+      std::memcpy(dest + name_offset, name.data(), name.size());
+      name_offset += name.size();
+    }
+  }
+  return static_cast<int32_t>(cpp_array.size());
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <jni.h>
+
+#include <cstdint>
+
+#include "com_evolvedbinary_jnibench_common_array_JniLookups.h"
+#include "../common/JniRegistry.h"
+
+static jlong Mix(jlong acc, const void* id) {
+  return acc * 31 + static_cast<jlong>(reinterpret_cast<intptr_t>(id));
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_array_JniLookups
+ * Method:    lookupUncached
+ * Signature: (I)J
+ */
+jlong Java_com_evolvedbinary_jnibench_common_array_JniLookups_lookupUncached
+  (JNIEnv* env, jclass, jint array_size) {
+  jlong acc = 0;
+
+  // AllocateInCppGetArray: the class once, and the constructor for each element
+  jclass jfoo_obj_clazz = env->FindClass("com/evolvedbinary/jnibench/common/array/FooObject");
+  if (jfoo_obj_clazz == nullptr) {
+    return 0;
+  }
+  for (jint i = 0; i < array_size; i++) {
+    acc = Mix(acc, env->GetMethodID(jfoo_obj_clazz, "<init>", "(Ljava/lang/String;J)V"));
+  }
+
+  // AllocateInCppGetArrayList: the list classes and methods once
+  jclass jarray_list_clazz = env->FindClass("java/util/ArrayList");
+  if (jarray_list_clazz == nullptr) {
+    env->DeleteLocalRef(jfoo_obj_clazz);
+    return 0;
+  }
+  jclass jlist_clazz = env->FindClass("java/util/List");
+  if (jlist_clazz == nullptr) {
+    env->DeleteLocalRef(jarray_list_clazz);
+    env->DeleteLocalRef(jfoo_obj_clazz);
+    return 0;
+  }
+  acc = Mix(acc, env->GetMethodID(jarray_list_clazz, "<init>", "(I)V"));
+  acc = Mix(acc, env->GetMethodID(jlist_clazz, "add", "(Ljava/lang/Object;)Z"));
+
+  env->DeleteLocalRef(jlist_clazz);
+  env->DeleteLocalRef(jarray_list_clazz);
+  env->DeleteLocalRef(jfoo_obj_clazz);
+  return acc;
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_array_JniLookups
+ * Method:    lookupCached
+ * Signature: (I)J
+ */
+jlong Java_com_evolvedbinary_jnibench_common_array_JniLookups_lookupCached
+  (JNIEnv*, jclass, jint array_size) {
+  const jnibench::JniRegistry& registry = jnibench::g_jni_registry;
+  jlong acc = 0;
+
+  jclass jfoo_obj_clazz = registry.foo_object_clazz;
+  for (jint i = 0; i < array_size; i++) {
+    acc = Mix(acc, registry.foo_object_init_mid);
+  }
+
+  acc = Mix(acc, registry.array_list_init_mid);
+  acc = Mix(acc, registry.list_add_mid);
+  return Mix(acc, jfoo_obj_clazz);
+}
@@ -24,26 +24,16 @@
  * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
-#include <assert.h>
 #include <jni.h>
 
+#include "../common/JniRegistry.h"
+
+// The classes and IDs below are resolved once, in JNI_OnLoad, see JniRegistry.h
+
 class JavaClass {
- public:
-  /**
-   * Gets and initializes a Java Class
-   *
-   * @param env A pointer to the Java environment
-   * @param jclazz_name The fully qualified JNI name of the Java Class
-   *     e.g. "java/lang/String"
-   *
-   * @return The Java Class or nullptr if one of the
-   *     ClassFormatError, ClassCircularityError, NoClassDefFoundError,
-   *     OutOfMemoryError or ExceptionInInitializerError exceptions is thrown
-   */
-  static jclass getJClass(JNIEnv* env, const char* jclazz_name) {
-    jclass jclazz = env->FindClass(jclazz_name);
-    assert(jclazz != nullptr);
-    return jclazz;
+ protected:
+  static const jnibench::JniRegistry& registry() {
+    return jnibench::g_jni_registry;
   }
 };
 
@@ -55,16 +45,14 @@ class FooObjectJni : public JavaClass {
    *
    * @param env A pointer to the Java environment
    *
-   * @return The Java Class or nullptr if one of the
-   *     ClassFormatError, ClassCircularityError, NoClassDefFoundError,
-   *     OutOfMemoryError or ExceptionInInitializerError exceptions is thrown
+   * @return The Java Class, resolved when the library was loaded
    */
   static jclass getJClass(JNIEnv* env) {
-    return JavaClass::getJClass(env, "com/evolvedbinary/jnibench/common/array/FooObject");
+    return registry().foo_object_clazz;
   }
 
   static jmethodID getConstructor(JNIEnv* env, jclass jclazz) {
-      return env->GetMethodID(jclazz, "<init>", "(Ljava/lang/String;J)V");
+    return registry().foo_object_init_mid;
   }
 
   /**
@@ -114,13 +102,10 @@ class FooObjectJni : public JavaClass {
    * @param env A pointer to the Java environment
    * @param jclazz the class
    *
-   * @return The Java Field ID or nullptr if the class or field id could not
-   *     be retrieved
+   * @return The Java Field ID, resolved when the library was loaded
    */
   static jfieldID getNameField(JNIEnv* env, jclass jclazz) {
-    static jfieldID fid = env->GetFieldID(jclazz, "name", "Ljava/lang/String;");
-    assert(fid != nullptr);
-    return fid;
+    return registry().foo_object_name_fid;
   }
 
   /**
@@ -129,13 +114,50 @@ class FooObjectJni : public JavaClass {
    * @param env A pointer to the Java environment
    * @param jclazz the class
    *
-   * @return The Java Field ID or nullptr if the class or field id could not
-   *     be retrieved
+   * @return The Java Field ID, resolved when the library was loaded
    */
   static jfieldID getValueField(JNIEnv* env, jclass jclazz) {
-    static jfieldID fid = env->GetFieldID(jclazz, "value", "J");
-    assert(fid != nullptr);
-    return fid;
+    return registry().foo_object_value_fid;
+  }
+};
+
+class FooObjectColumnsJni : public JavaClass {
+ public:
+
+  /**
+   * Get the Java Class com.evolvedbinary.jnibench.common.array.AllocateInCppGetColumnar.FooObjectColumns
+   *
+   * @param env A pointer to the Java environment
+   *
+   * @return The Java Class, resolved when the library was loaded
+   */
+  static jclass getJClass(JNIEnv* env) {
+    return registry().foo_object_columns_clazz;
+  }
+
+  static jmethodID getConstructor(JNIEnv* env, jclass jclazz) {
+    return registry().foo_object_columns_init_mid;
+  }
+
+  /**
+   * Create a new Java FooObjectColumns over the provided columns.
+   *
+   * @return A reference to a FooObjectColumns object, or nullptr if an exception occurs
+   */
+  static jobject construct(JNIEnv* env, jlongArray jvalues, jbyteArray jnames, jintArray jname_offsets) {
+    jclass jclazz = getJClass(env);
+    if (jclazz == nullptr) {
+      // exception occurred accessing class
+      return nullptr;
+    }
+
+    jmethodID mid = getConstructor(env, jclazz);
+    if (mid == nullptr) {
+      // exception thrown: NoSuchMethodException or OutOfMemoryError
+      return nullptr;
+    }
+
+    return env->NewObject(jclazz, mid, jvalues, jnames, jname_offsets);
   }
 };
 
@@ -147,16 +169,14 @@ class LongJni : public JavaClass {
    *
    * @param env A pointer to the Java environment
    *
-   * @return The Java Class or nullptr if one of the
-   *     ClassFormatError, ClassCircularityError, NoClassDefFoundError,
-   *     OutOfMemoryError or ExceptionInInitializerError exceptions is thrown
+   * @return The Java Class, resolved when the library was loaded
    */
   static jclass getJClass(JNIEnv* env) {
-    return JavaClass::getJClass(env, "java/lang/Long");
+    return registry().long_clazz;
   }
 
   static jmethodID getConstructor(JNIEnv* env, jclass jclazz) {
-    return env->GetMethodID(jclazz, "<init>", "(J)V");
+    return registry().long_init_mid;
   }
 
   static jobject construct(JNIEnv* env, jclass jclazz, const int64_t& value) {
@@ -186,12 +206,10 @@ class StringJni : public JavaClass {
    *
    * @param env A pointer to the Java environment
    *
-   * @return The Java Class or nullptr if one of the
-   *     ClassFormatError, ClassCircularityError, NoClassDefFoundError,
-   *     OutOfMemoryError or ExceptionInInitializerError exceptions is thrown
+   * @return The Java Class, resolved when the library was loaded
    */
   static jclass getJClass(JNIEnv* env) {
-    return JavaClass::getJClass(env, "java/lang/String");
+    return registry().string_clazz;
   }
 };
 
@@ -202,12 +220,10 @@ class ListJni : public JavaClass {
    *
    * @param env A pointer to the Java environment
    *
-   * @return The Java Class or nullptr if one of the
-   *     ClassFormatError, ClassCircularityError, NoClassDefFoundError,
-   *     OutOfMemoryError or ExceptionInInitializerError exceptions is thrown
+   * @return The Java Class, resolved when the library was loaded
    */
   static jclass getListClass(JNIEnv* env) {
-    return JavaClass::getJClass(env, "java/util/List");
+    return registry().list_clazz;
   }
 
   /**
@@ -215,12 +231,10 @@ class ListJni : public JavaClass {
    *
    * @param env A pointer to the Java environment
    *
-   * @return The Java Class or nullptr if one of the
-   *     ClassFormatError, ClassCircularityError, NoClassDefFoundError,
-   *     OutOfMemoryError or ExceptionInInitializerError exceptions is thrown
+   * @return The Java Class, resolved when the library was loaded
    */
   static jclass getArrayListClass(JNIEnv* env) {
-    return JavaClass::getJClass(env, "java/util/ArrayList");
+    return registry().array_list_clazz;
   }
 
   /**
@@ -228,19 +242,10 @@ class ListJni : public JavaClass {
    *
    * @param env A pointer to the Java environment
    *
-   * @return The Java Method ID or nullptr if the class or method id could not
-   *     be retrieved
+   * @return The Java Method ID, resolved when the library was loaded
    */
   static jmethodID getArrayListConstructorMethodId(JNIEnv* env) {
-    jclass jarray_list_clazz = getArrayListClass(env);
-    if(jarray_list_clazz == nullptr) {
-      // exception occurred accessing class
-      return nullptr;
-    }
-    static jmethodID mid =
-        env->GetMethodID(jarray_list_clazz, "<init>", "(I)V");
-    assert(mid != nullptr);
-    return mid;
+    return registry().array_list_init_mid;
   }
 
   /**
@@ -252,15 +257,6 @@ class ListJni : public JavaClass {
    *     be retieved
    */
   static jmethodID getListAddMethodId(JNIEnv* env) {
-    jclass jlist_clazz = getListClass(env);
-    if(jlist_clazz == nullptr) {
-      // exception occurred accessing class
-      return nullptr;
-    }
-
-    static jmethodID mid =
-        env->GetMethodID(jlist_clazz, "add", "(Ljava/lang/Object;)Z");
-    assert(mid != nullptr);
-    return mid;
+    return registry().list_add_mid;
   }
 };
\ No newline at end of file
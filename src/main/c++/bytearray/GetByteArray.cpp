@@ -29,6 +29,7 @@
 #include <cassert>
 #include <cstring>
 #include <iostream>
+#include <mutex>
 #include <unordered_map>
 
 #include "com_evolvedbinary_jnibench_common_bytearray_GetByteArray.h"
@@ -58,9 +59,19 @@ static const auto DB_READ_MOCK = std::unordered_map<std::string, std::string>{
     {"testKeyWithReturnValueSize0131072Bytes", STR_128_KB},
     {"testKeyWithReturnValueSize0262144Bytes", STR_256_KB}};
 
-const std::string &GetByteArrayInternal(const char *key)
+// see MockDb.cpp
+extern const std::string *FindPopulated(const char *key, size_t key_len);
+
+const std::string &GetByteArrayInternal(const char *key, size_t key_len)
 {
-  std::string str(key, 38);
+  // the populated keyspace first, it is looked up without copying the key
+  const std::string *populated = FindPopulated(key, key_len);
+  if (populated != nullptr)
+  {
+    return *populated;
+  }
+
+  std::string str(key, key_len);
 
   //std::cerr << std::endl << "Getting " << str << std::endl << std::endl;
   return DB_READ_MOCK.at(str);
@@ -71,7 +82,7 @@ struct WriteKey
   std::string key;
   size_t length;
 
-  WriteKey(const std::string &key, size_t length) : key(key, 38), length(length)
+  WriteKey(const char *key, size_t key_len, size_t length) : key(key, key_len), length(length)
   {
   }
 };
@@ -96,67 +107,30 @@ namespace std
   };
 }
 
-static auto DB_WRITE_MOCK = std::unordered_map<WriteKey, char *>();
+// lock striped, so that puts from many threads only contend when their keys share a stripe
+static const size_t WRITE_MOCK_STRIPES = 64;
 
-char *GetByteArrayInternalForWrite(const char *key, size_t size)
+struct alignas(64) WriteMockStripe
 {
-  auto writeKey = WriteKey(key, size);
-  auto it = DB_WRITE_MOCK.find(writeKey);
-  if (it == DB_WRITE_MOCK.end())
-  {
-    DB_WRITE_MOCK[writeKey] = new char[size];
-    it = DB_WRITE_MOCK.find(writeKey);
-  }
-  return it->second;
-}
+  std::mutex mutex;
+  std::unordered_map<WriteKey, char *> map;
+};
 
-jclass g_jbyte_buffer_clazz;
-jmethodID g_jbyte_buffer_array_mid;
-jmethodID g_jbyte_buffer_allocate_mid;
+static WriteMockStripe DB_WRITE_MOCK[WRITE_MOCK_STRIPES];
 
-jint JNI_OnLoad(JavaVM *vm, void *reserved)
+char *GetByteArrayInternalForWrite(const char *key, size_t key_len, size_t size)
 {
+  auto writeKey = WriteKey(key, key_len, size);
+  const size_t hash = std::hash<WriteKey>{}(writeKey);
+  WriteMockStripe &stripe = DB_WRITE_MOCK[hash % WRITE_MOCK_STRIPES];
 
-  JNIEnv *env;
-  if (vm->GetEnv(reinterpret_cast<void **>(&env), JNI_VERSION_1_6) != JNI_OK)
-  {
-    return JNI_ERR;
-  }
-
-  // Get ByteBuffer class reference
-  jclass temp_clazz = env->FindClass("java/nio/ByteBuffer");
-  if (nullptr == temp_clazz)
-  {
-    return JNI_ERR;
-  }
-  g_jbyte_buffer_clazz = reinterpret_cast<jclass>(env->NewGlobalRef(temp_clazz));
-  env->DeleteLocalRef(temp_clazz);
-
-  // Get ByteBuffer.array() method ID
-  g_jbyte_buffer_array_mid = env->GetMethodID(g_jbyte_buffer_clazz, "array", "()[B");
-  if (nullptr == g_jbyte_buffer_array_mid)
+  std::lock_guard<std::mutex> lock(stripe.mutex);
+  auto it = stripe.map.find(writeKey);
+  if (it == stripe.map.end())
   {
-    return JNI_ERR;
+    it = stripe.map.emplace(writeKey, new char[size]).first;
   }
-
-  g_jbyte_buffer_allocate_mid = env->GetStaticMethodID(
-      g_jbyte_buffer_clazz, "allocate", "(I)Ljava/nio/ByteBuffer;");
-  if (nullptr == g_jbyte_buffer_allocate_mid)
-  {
-    return JNI_ERR;
-  }
-
-  return JNI_VERSION_1_6;
-}
-
-void JNI_OnUnload(JavaVM *vm, void *reserved)
-{
-
-  JNIEnv *env;
-  vm->GetEnv(reinterpret_cast<void **>(&env), JNI_VERSION_1_6);
-
-  // Destroy the global references
-  env->DeleteGlobalRef(g_jbyte_buffer_clazz);
+  return it->second;
 }
 
 /*
@@ -166,20 +140,20 @@ void JNI_OnUnload(JavaVM *vm, void *reserved)
  */
 jbyteArray Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_get___3BII(JNIEnv *env, jclass, jbyteArray jkey, jint jkey_off, jint jkey_len)
 {
-  jbyte *key = new jbyte[jkey_len];
+  jbyte *key = reinterpret_cast<jbyte *>(AcquireKey(jkey_len));
   env->GetByteArrayRegion(jkey, jkey_off, jkey_len, key);
   if (env->ExceptionCheck())
   {
     // exception thrown: ArrayIndexOutOfBoundsException
-    delete[] key;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return nullptr;
   }
 
   // Mock getting value
-  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
 
   // Cleanup
-  delete[] key;
+  ReleaseKey(reinterpret_cast<char *>(key));
 
   jbyteArray jret_value = StringToJavaByteArray(env, value);
   if (jret_value == nullptr)
@@ -214,7 +188,7 @@ jbyteArray Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getDire
   }
 
   // Mock getting value
-  std::string value = GetByteArrayInternal(key);
+  std::string value = GetByteArrayInternal(key, jkey_len);
 
   jbyteArray jret_value = StringToJavaByteArray(env, value);
   if (jret_value == nullptr)
@@ -234,7 +208,7 @@ jbyteArray Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getDire
 jbyteArray Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getUnsafeAllocatedKey(JNIEnv *env, jclass, jlong jkey_handle, jint jkey_off, jint jkey_len)
 {
   // Mock getting value
-  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(jkey_handle));
+  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(jkey_handle), jkey_len);
 
   jbyteArray jret_value = StringToJavaByteArray(env, value);
   if (jret_value == nullptr)
@@ -255,19 +229,19 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_get___3BII_3B
 {
   static const int kError = -1;
 
-  jbyte *key = new jbyte[jkey_len];
+  jbyte *key = reinterpret_cast<jbyte *>(AcquireKey(jkey_len));
   env->GetByteArrayRegion(jkey, jkey_off, jkey_len, key);
   if (env->ExceptionCheck())
   {
     // exception thrown: OutOfMemoryError
-    delete[] key;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return kError;
   }
 
-  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
 
   // cleanup
-  delete[] key;
+  ReleaseKey(reinterpret_cast<char *>(key));
 
   const jint cvalue_len = static_cast<jint>(cvalue.size());
   const jint length = std::min(jval_len, cvalue_len);
@@ -291,20 +265,20 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_get___3BII_3B
  */
 jobject Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getInBuffer___3BII(JNIEnv *env, jclass, jbyteArray jkey, jint jkey_off, jint jkey_len)
 {
-  jbyte *key = new jbyte[jkey_len];
+  jbyte *key = reinterpret_cast<jbyte *>(AcquireKey(jkey_len));
   env->GetByteArrayRegion(jkey, jkey_off, jkey_len, key);
   if (env->ExceptionCheck())
   {
     // exception thrown: ArrayIndexOutOfBoundsException
-    delete[] key;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return nullptr;
   }
 
   // Mock getting value
-  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
 
   // Cleanup
-  delete[] key;
+  ReleaseKey(reinterpret_cast<char *>(key));
 
   return NewByteBuffer(env, value.size(), value.c_str());
 }
@@ -316,20 +290,20 @@ jobject Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getInBuffe
  */
 jobject Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getInDirectBuffer___3BII(JNIEnv *env, jclass, jbyteArray jkey, jint jkey_off, jint jkey_len)
 {
-  jbyte *key = new jbyte[jkey_len];
+  jbyte *key = reinterpret_cast<jbyte *>(AcquireKey(jkey_len));
   env->GetByteArrayRegion(jkey, jkey_off, jkey_len, key);
   if (env->ExceptionCheck())
   {
     // exception thrown: ArrayIndexOutOfBoundsException
-    delete[] key;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return nullptr;
   }
 
   // Mock getting value
-  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
 
   // Cleanup
-  delete[] key;
+  ReleaseKey(reinterpret_cast<char *>(key));
 
   return NewDirectByteBuffer(env, value.size(), value.c_str());
 }
@@ -344,22 +318,25 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getInBuffer__
 {
   static const int kError = -1;
 
-  jbyte *key = new jbyte[jkey_len];
+  jbyte *key = reinterpret_cast<jbyte *>(AcquireKey(jkey_len));
   env->GetByteArrayRegion(jkey, jkey_off, jkey_len, key);
   if (env->ExceptionCheck())
   {
     // exception thrown: ArrayIndexOutOfBoundsException
-    delete[] key;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return kError;
   }
 
   // Mock getting value
-  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
+
+  // Cleanup
+  ReleaseKey(reinterpret_cast<char *>(key));
 
   const size_t jdata_len = cvalue.size();
   const size_t length = std::min(static_cast<size_t>(jval_len), jdata_len);
 
-  SetByteBufferData(env, g_jbyte_buffer_array_mid, jval, cvalue.c_str(), length);
+  SetByteBufferData(env, jnibench::g_jni_registry.byte_buffer_array_mid, jval, cvalue.c_str(), length);
   return static_cast<jint>(jdata_len);
 }
 
@@ -373,12 +350,12 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getInDirectBu
 {
   static const int kArgumentError = -3;
 
-  jbyte *key = new jbyte[jkey_len];
+  jbyte *key = reinterpret_cast<jbyte *>(AcquireKey(jkey_len));
   env->GetByteArrayRegion(jkey, jkey_off, jkey_len, key);
   if (env->ExceptionCheck())
   {
     // exception thrown: ArrayIndexOutOfBoundsException
-    delete[] key;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return kArgumentError;
   }
 
@@ -386,6 +363,7 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getInDirectBu
   if (value == nullptr)
   {
     std::cerr << "Invalid value argument (argument is not a valid direct ByteBuffer)" << std::endl;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return kArgumentError;
   }
   if (env->GetDirectBufferCapacity(jval) < (jval_off + jval_len))
@@ -393,11 +371,15 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getInDirectBu
     std::cerr << "Invalid value argument. Capacity is less than requested region "
                  "(offset + length)."
               << std::endl;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return kArgumentError;
   }
 
   // Mock getting value
-  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
+
+  // Cleanup
+  ReleaseKey(reinterpret_cast<char *>(key));
 
   // Copy data to direct byte buffer
   const jint jdata_len = static_cast<jint>(cvalue.size());
@@ -446,7 +428,7 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getInDirectBu
   }
 
   // Mock getting value
-  std::string cvalue = GetByteArrayInternal(key);
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
 
   // Copy data to direct byte buffer
   const jint jdata_len = static_cast<jint>(cvalue.size());
@@ -475,7 +457,7 @@ jbyteArray Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getWith
   }
 
   // Mock getting value
-  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string value = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
 
   // Cleanup
   env->ReleasePrimitiveArrayCritical(jkey, key, is_copy ? 0 : JNI_ABORT);
@@ -508,7 +490,7 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getCritical(J
     return kError;
   }
 
-  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
 
   // Cleanup
   env->ReleasePrimitiveArrayCritical(jkey, key, is_copy ? 0 : JNI_ABORT);
@@ -521,9 +503,7 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getCritical(J
       env->GetPrimitiveArrayCritical(jval, &is_copy));
   if (JNI_TRUE == is_copy)
   {
-    jclass jclazz = env->FindClass("java/lang/RuntimeException");
-    assert(jclazz != nullptr);
-    const jint rs = env->ThrowNew(jclazz, "GetPrimitiveArrayCritical returned a copy of the value array!");
+    const jint rs = env->ThrowNew(jnibench::g_jni_registry.runtime_exception_clazz, "GetPrimitiveArrayCritical returned a copy of the value array!");
     if (rs != JNI_OK)
     {
       // exception could not be thrown
@@ -549,19 +529,19 @@ jint Java_com_evolvedbinary_jnibench_common_bytearray_GetByteArray_getUnsafe(JNI
 {
   static const int kError = -1;
 
-  jbyte *key = new jbyte[jkey_len];
+  jbyte *key = reinterpret_cast<jbyte *>(AcquireKey(jkey_len));
   env->GetByteArrayRegion(jkey, jkey_off, jkey_len, key);
   if (env->ExceptionCheck())
   {
     // exception thrown: OutOfMemoryError
-    delete[] key;
+    ReleaseKey(reinterpret_cast<char *>(key));
     return kError;
   }
 
-  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key));
+  std::string cvalue = GetByteArrayInternal(reinterpret_cast<char *>(key), jkey_len);
 
   // Cleanup
-  delete[] key;
+  ReleaseKey(reinterpret_cast<char *>(key));
 
   const jint cvalue_len = static_cast<jint>(cvalue.size());
   const jint length = std::min(jval_len, cvalue_len);
@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <jni.h>
+
+#include <cstddef>
+
+#include "com_evolvedbinary_jnibench_common_bytearray_KeyScratch.h"
+
+/*
+ * A native buffer which a thread reuses to stage the keys it passes,
+ * instead of allocating (and freeing) a new buffer for every call.
+ */
+struct KeyScratch
+{
+  char *data;
+  size_t capacity;
+  bool in_use;
+
+  explicit KeyScratch(size_t capacity) : data(new char[capacity]), capacity(capacity), in_use(false)
+  {
+  }
+
+  ~KeyScratch()
+  {
+    delete[] data;
+  }
+};
+
+static thread_local KeyScratch *t_key_scratch = nullptr;
+
+//
+// Get a buffer to stage a key of len bytes in;
+// the scratch buffer of the calling thread if it has one that is large enough
+//
+char *AcquireKey(size_t len)
+{
+  KeyScratch *scratch = t_key_scratch;
+  if (scratch != nullptr && !scratch->in_use && len <= scratch->capacity)
+  {
+    scratch->in_use = true;
+    return scratch->data;
+  }
+  return new char[len];
+}
+
+//
+// Give back a buffer from AcquireKey
+//
+void ReleaseKey(const char *key)
+{
+  KeyScratch *scratch = t_key_scratch;
+  if (scratch != nullptr && key == scratch->data)
+  {
+    scratch->in_use = false;
+    return;
+  }
+  delete[] key;
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_KeyScratch
+ * Method:    create
+ * Signature: (I)J
+ */
+jlong Java_com_evolvedbinary_jnibench_common_bytearray_KeyScratch_create(JNIEnv *, jclass, jint jcapacity)
+{
+  return reinterpret_cast<jlong>(new KeyScratch(static_cast<size_t>(jcapacity)));
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_KeyScratch
+ * Method:    register
+ * Signature: (J)V
+ */
+void Java_com_evolvedbinary_jnibench_common_bytearray_KeyScratch_register(JNIEnv *, jclass, jlong handle)
+{
+  t_key_scratch = reinterpret_cast<KeyScratch *>(handle);
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_KeyScratch
+ * Method:    unregister
+ * Signature: (J)V
+ */
+void Java_com_evolvedbinary_jnibench_common_bytearray_KeyScratch_unregister(JNIEnv *, jclass, jlong handle)
+{
+  if (t_key_scratch == reinterpret_cast<KeyScratch *>(handle))
+  {
+    t_key_scratch = nullptr;
+  }
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_KeyScratch
+ * Method:    disposeInternal
+ * Signature: (J)V
+ */
+void Java_com_evolvedbinary_jnibench_common_bytearray_KeyScratch_disposeInternal(JNIEnv *, jclass, jlong handle)
+{
+  KeyScratch *scratch = reinterpret_cast<KeyScratch *>(handle);
+  if (t_key_scratch == scratch)
+  {
+    t_key_scratch = nullptr;
+  }
+  delete scratch;
+}
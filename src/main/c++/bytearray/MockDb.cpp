@@ -0,0 +1,408 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <jni.h>
+
+#include <cstdint>
+#include <cstring>
+#include <deque>
+#include <string>
+#include <vector>
+
+#include "com_evolvedbinary_jnibench_common_bytearray_MockDb.h"
+#include "../common/JniRegistry.h"
+
+extern bool HasPinnedValues();
+
+/*
+ * The keyspace added by MockDb, as opposed to the fixed values of DB_READ_MOCK.
+ *
+ * Kept compact so that it can hold millions of keys: the keys are packed one after another in a single arena,
+ * and found through an open addressing (linear probing) index of 8 byte slots.
+ * Each key has a value of its own, so that reading many keys touches as much memory as it would in a real store.
+ */
+struct MockDbEntry
+{
+  uint64_t key_off;
+  std::string *value;
+  uint32_t key_len;
+};
+
+struct MockDbSlot
+{
+  // 0 for an empty slot
+  uint32_t entry_plus_one;
+  uint32_t hash_tag;
+};
+
+static std::vector<char> DB_POPULATED_KEYS;
+static std::vector<MockDbEntry> DB_POPULATED_ENTRIES;
+static std::vector<MockDbSlot> DB_POPULATED_INDEX;
+// a deque, so that the values do not move as it grows
+static std::deque<std::string> DB_POPULATED_VALUES;
+
+static inline uint64_t HashKey(const char *key, size_t key_len)
+{
+  uint64_t h = 0x243F6A8885A308D3ULL ^ key_len;
+  size_t i = 0;
+  for (; i + sizeof(uint64_t) <= key_len; i += sizeof(uint64_t))
+  {
+    uint64_t word;
+    memcpy(&word, key + i, sizeof(word));
+    h = (h ^ word) * 0x9E3779B97F4A7C15ULL;
+    h ^= h >> 32;
+  }
+  if (i < key_len)
+  {
+    uint64_t word = 0;
+    memcpy(&word, key + i, key_len - i);
+    h = (h ^ word) * 0x9E3779B97F4A7C15ULL;
+  }
+  h ^= h >> 29;
+  h *= 0xBF58476D1CE4E5B9ULL;
+  h ^= h >> 32;
+  return h;
+}
+
+//
+// The slot of the key, or the empty slot where it belongs
+//
+static MockDbSlot *FindSlot(const char *key, size_t key_len, uint64_t hash)
+{
+  const size_t mask = DB_POPULATED_INDEX.size() - 1;
+  const uint32_t tag = static_cast<uint32_t>(hash >> 32);
+  for (size_t i = static_cast<size_t>(hash) & mask;; i = (i + 1) & mask)
+  {
+    MockDbSlot *slot = &DB_POPULATED_INDEX[i];
+    if (slot->entry_plus_one == 0)
+    {
+      return slot;
+    }
+    if (slot->hash_tag == tag)
+    {
+      const MockDbEntry &entry = DB_POPULATED_ENTRIES[slot->entry_plus_one - 1];
+      if (entry.key_len == key_len && memcmp(DB_POPULATED_KEYS.data() + entry.key_off, key, key_len) == 0)
+      {
+        return slot;
+      }
+    }
+  }
+}
+
+//
+// Size the index for capacity entries, at most half full
+//
+static void ReserveIndex(size_t capacity)
+{
+  size_t slots = 16;
+  while (slots < capacity * 2)
+  {
+    slots <<= 1;
+  }
+  if (slots <= DB_POPULATED_INDEX.size())
+  {
+    return;
+  }
+
+  DB_POPULATED_INDEX.assign(slots, MockDbSlot{0, 0});
+  for (size_t i = 0; i < DB_POPULATED_ENTRIES.size(); i++)
+  {
+    const MockDbEntry &entry = DB_POPULATED_ENTRIES[i];
+    const char *key = DB_POPULATED_KEYS.data() + entry.key_off;
+    const uint64_t hash = HashKey(key, entry.key_len);
+    MockDbSlot *slot = FindSlot(key, entry.key_len, hash);
+    slot->entry_plus_one = static_cast<uint32_t>(i + 1);
+    slot->hash_tag = static_cast<uint32_t>(hash >> 32);
+  }
+}
+
+static void FillValue(std::string &value, size_t size)
+{
+  value.assign(size, '\0');
+  for (size_t i = 0; i < size; i++)
+  {
+    value[i] = static_cast<char>('a' + i % 26);
+  }
+}
+
+static void PutPopulated(const char *key, size_t key_len, size_t value_size)
+{
+  ReserveIndex(DB_POPULATED_ENTRIES.size() + 1);
+
+  const uint64_t hash = HashKey(key, key_len);
+  MockDbSlot *slot = FindSlot(key, key_len, hash);
+  if (slot->entry_plus_one != 0)
+  {
+    FillValue(*DB_POPULATED_ENTRIES[slot->entry_plus_one - 1].value, value_size);
+    return;
+  }
+
+  DB_POPULATED_VALUES.emplace_back();
+  std::string &value = DB_POPULATED_VALUES.back();
+  FillValue(value, value_size);
+
+  const uint64_t key_off = DB_POPULATED_KEYS.size();
+  DB_POPULATED_KEYS.insert(DB_POPULATED_KEYS.end(), key, key + key_len);
+  DB_POPULATED_ENTRIES.push_back(MockDbEntry{key_off, &value, static_cast<uint32_t>(key_len)});
+  slot->entry_plus_one = static_cast<uint32_t>(DB_POPULATED_ENTRIES.size());
+  slot->hash_tag = static_cast<uint32_t>(hash >> 32);
+}
+
+//
+// Values which are pinned alias the keyspace, so it must not change under them;
+// throws IllegalStateException and returns false if any value is pinned
+//
+static bool CheckNotPinned(JNIEnv *env)
+{
+  if (HasPinnedValues())
+  {
+    env->ThrowNew(jnibench::g_jni_registry.illegal_state_exception_clazz,
+                  "The mock db cannot be changed while values are pinned");
+    return false;
+  }
+  return true;
+}
+
+static void ClearPopulated()
+{
+  std::vector<char>().swap(DB_POPULATED_KEYS);
+  std::vector<MockDbEntry>().swap(DB_POPULATED_ENTRIES);
+  std::vector<MockDbSlot>().swap(DB_POPULATED_INDEX);
+  std::deque<std::string>().swap(DB_POPULATED_VALUES);
+}
+
+//
+// Find a value which was added to the mock db, or nullptr if there is none
+//
+const std::string *FindPopulated(const char *key, size_t key_len)
+{
+  if (DB_POPULATED_ENTRIES.empty())
+  {
+    return nullptr;
+  }
+  const MockDbSlot *slot = FindSlot(key, key_len, HashKey(key, key_len));
+  if (slot->entry_plus_one == 0)
+  {
+    return nullptr;
+  }
+  return DB_POPULATED_ENTRIES[slot->entry_plus_one - 1].value;
+}
+
+//
+// The key of index in the generated keyspace, see MockDb.key(int, int):
+// the index in big-endian order in the first 4 bytes, so that every key is distinct, padded with 'k'
+//
+static const size_t KEY_INDEX_LEN = sizeof(uint32_t);
+
+static void GenerateKey(uint32_t index, char *key, size_t key_len)
+{
+  for (size_t i = 0; i < KEY_INDEX_LEN; i++)
+  {
+    key[i] = static_cast<char>((index >> (8 * (KEY_INDEX_LEN - 1 - i))) & 0xff);
+  }
+  memset(key + KEY_INDEX_LEN, 'k', key_len - KEY_INDEX_LEN);
+}
+
+static inline uint64_t SplitMix64(uint64_t &state)
+{
+  uint64_t z = (state += 0x9E3779B97F4A7C15ULL);
+  z = (z ^ (z >> 30)) * 0xBF58476D1CE4E5B9ULL;
+  z = (z ^ (z >> 27)) * 0x94D049BB133111EBULL;
+  return z ^ (z >> 31);
+}
+
+//
+// Draw a size from a distribution of sizes and their cumulative weights
+//
+static inline jint DrawSize(const std::vector<jint> &sizes, const std::vector<jlong> &cumulative, uint64_t &state)
+{
+  const uint64_t weight = SplitMix64(state) % static_cast<uint64_t>(cumulative.back());
+  size_t i = 0;
+  while (static_cast<uint64_t>(cumulative[i]) <= weight)
+  {
+    i++;
+  }
+  return sizes[i];
+}
+
+static bool GetDistribution(JNIEnv *env, jintArray jsizes, jintArray jweights, std::vector<jint> &sizes,
+                            std::vector<jlong> &cumulative)
+{
+  const jsize len = env->GetArrayLength(jsizes);
+  sizes.resize(len);
+  std::vector<jint> weights(len);
+  env->GetIntArrayRegion(jsizes, 0, len, sizes.data());
+  env->GetIntArrayRegion(jweights, 0, len, weights.data());
+  if (env->ExceptionCheck())
+  {
+    // exception thrown: ArrayIndexOutOfBoundsException
+    return false;
+  }
+  cumulative.resize(len);
+  jlong total = 0;
+  for (jsize i = 0; i < len; i++)
+  {
+    total += weights[i];
+    cumulative[i] = total;
+  }
+  return true;
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_MockDb
+ * Method:    putInternal
+ * Signature: ([BIII)V
+ */
+void Java_com_evolvedbinary_jnibench_common_bytearray_MockDb_putInternal(JNIEnv *env, jclass, jbyteArray jkey, jint jkey_off,
+                                                                        jint jkey_len, jint jvalue_size)
+{
+  std::vector<char> key(static_cast<size_t>(jkey_len));
+  env->GetByteArrayRegion(jkey, jkey_off, jkey_len, reinterpret_cast<jbyte *>(key.data()));
+  if (env->ExceptionCheck())
+  {
+    // exception thrown: ArrayIndexOutOfBoundsException
+    return;
+  }
+  if (!CheckNotPinned(env))
+  {
+    return;
+  }
+
+  PutPopulated(key.data(), key.size(), static_cast<size_t>(jvalue_size));
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_MockDb
+ * Method:    populateInternal
+ * Signature: (I[I[I[I[IJ)V
+ */
+void Java_com_evolvedbinary_jnibench_common_bytearray_MockDb_populateInternal(JNIEnv *env, jclass, jint jnum_keys,
+                                                                             jintArray jkey_sizes, jintArray jkey_weights,
+                                                                             jintArray jvalue_sizes,
+                                                                             jintArray jvalue_weights, jlong jseed)
+{
+  std::vector<jint> key_sizes, value_sizes;
+  std::vector<jlong> key_cumulative, value_cumulative;
+  if (!GetDistribution(env, jkey_sizes, jkey_weights, key_sizes, key_cumulative) ||
+      !GetDistribution(env, jvalue_sizes, jvalue_weights, value_sizes, value_cumulative))
+  {
+    return;
+  }
+  for (size_t i = 0; i < key_sizes.size(); i++)
+  {
+    if (static_cast<size_t>(key_sizes[i]) < KEY_INDEX_LEN)
+    {
+      env->ThrowNew(jnibench::g_jni_registry.illegal_argument_exception_clazz, "Keys must be at least 4 bytes long");
+      return;
+    }
+  }
+
+  if (!CheckNotPinned(env))
+  {
+    return;
+  }
+
+  // the index of each generated key is the index of its entry
+  ClearPopulated();
+
+  const size_t num_keys = static_cast<size_t>(jnum_keys);
+  jlong mean_key_len = 0;
+  for (size_t i = 0; i < key_sizes.size(); i++)
+  {
+    mean_key_len += key_sizes[i] * (key_cumulative[i] - (i == 0 ? 0 : key_cumulative[i - 1]));
+  }
+  mean_key_len /= key_cumulative.back();
+  DB_POPULATED_KEYS.reserve(num_keys * static_cast<size_t>(mean_key_len + 1));
+  DB_POPULATED_ENTRIES.reserve(num_keys);
+  ReserveIndex(num_keys);
+
+  uint64_t state = static_cast<uint64_t>(jseed);
+  std::vector<char> key;
+  for (size_t i = 0; i < num_keys; i++)
+  {
+    key.resize(static_cast<size_t>(DrawSize(key_sizes, key_cumulative, state)));
+    GenerateKey(static_cast<uint32_t>(i), key.data(), key.size());
+    PutPopulated(key.data(), key.size(), static_cast<size_t>(DrawSize(value_sizes, value_cumulative, state)));
+  }
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_MockDb
+ * Method:    describeInternal
+ * Signature: ([I[I[I)V
+ */
+void Java_com_evolvedbinary_jnibench_common_bytearray_MockDb_describeInternal(JNIEnv *env, jclass, jintArray jindices,
+                                                                             jintArray jkey_lens, jintArray jvalue_sizes)
+{
+  const jsize len = env->GetArrayLength(jindices);
+  std::vector<jint> indices(len);
+  env->GetIntArrayRegion(jindices, 0, len, indices.data());
+  if (env->ExceptionCheck())
+  {
+    // exception thrown: ArrayIndexOutOfBoundsException
+    return;
+  }
+
+  std::vector<jint> key_lens(len);
+  std::vector<jint> value_sizes(len);
+  for (jsize i = 0; i < len; i++)
+  {
+    if (indices[i] < 0 || static_cast<size_t>(indices[i]) >= DB_POPULATED_ENTRIES.size())
+    {
+      env->ThrowNew(jnibench::g_jni_registry.index_out_of_bounds_exception_clazz, "Index is outside of the mock db");
+      return;
+    }
+    const MockDbEntry &entry = DB_POPULATED_ENTRIES[indices[i]];
+    key_lens[i] = static_cast<jint>(entry.key_len);
+    value_sizes[i] = static_cast<jint>(entry.value->size());
+  }
+  env->SetIntArrayRegion(jkey_lens, 0, len, key_lens.data());
+  env->SetIntArrayRegion(jvalue_sizes, 0, len, value_sizes.data());
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_MockDb
+ * Method:    sizeInternal
+ * Signature: ()I
+ */
+jint Java_com_evolvedbinary_jnibench_common_bytearray_MockDb_sizeInternal(JNIEnv *, jclass)
+{
+  return static_cast<jint>(DB_POPULATED_ENTRIES.size());
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_bytearray_MockDb
+ * Method:    clearInternal
+ * Signature: ()V
+ */
+void Java_com_evolvedbinary_jnibench_common_bytearray_MockDb_clearInternal(JNIEnv *env, jclass)
+{
+  if (!CheckNotPinned(env))
+  {
+    return;
+  }
+  ClearPopulated();
+}
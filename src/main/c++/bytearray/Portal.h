@@ -28,9 +28,11 @@
 
 #include <cstring>
 
-extern jclass g_jbyte_buffer_clazz;
-extern jmethodID g_jbyte_buffer_array_mid;
-extern jmethodID g_jbyte_buffer_allocate_mid;
+#include "../common/JniRegistry.h"
+
+// see KeyScratch.cpp
+extern char *AcquireKey(size_t len);
+extern void ReleaseKey(const char *key);
 
 inline jbyteArray StringToJavaByteArray(JNIEnv *env, const std::string& str) {
   const jsize jlen = static_cast<jsize>(str.size());
@@ -80,7 +82,8 @@ inline void SetByteBufferData(JNIEnv* env, const jmethodID jarray_mid, const job
 inline jobject NewByteBuffer(JNIEnv* env, const size_t capacity, const char* content) {
 
   const jobject jbuf = env->CallStaticObjectMethod(
-      g_jbyte_buffer_clazz, g_jbyte_buffer_allocate_mid, static_cast<jint>(capacity));
+      jnibench::g_jni_registry.byte_buffer_clazz, jnibench::g_jni_registry.byte_buffer_allocate_mid,
+      static_cast<jint>(capacity));
   if (env->ExceptionCheck()) {
     // exception occurred
     return nullptr;
@@ -88,7 +91,7 @@ inline jobject NewByteBuffer(JNIEnv* env, const size_t capacity, const char* con
 
   // Set buffer data
   if (content != nullptr) {
-    SetByteBufferData(env, g_jbyte_buffer_array_mid, jbuf, content, capacity);
+    SetByteBufferData(env, jnibench::g_jni_registry.byte_buffer_array_mid, jbuf, content, capacity);
   }
 
   return jbuf;
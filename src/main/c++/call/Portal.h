@@ -24,40 +24,25 @@
  * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
-#include <assert.h>
 #include <jni.h>
 
+#include "../common/JniRegistry.h"
+
 namespace jnibench {
 
 // Native class template
 template<class PTR, class DERIVED> class FooJniClass {
  public:
-  // Get the java class id
-  static jclass getJClass(JNIEnv* env, const char* jclazz_name) {
-    jclass jclazz = env->FindClass(jclazz_name);
-    assert(jclazz != nullptr);
-    return jclazz;
-  }
-
-  // Get the field id of the member variable to store
-  // the ptr
-  static jfieldID getHandleFieldID(JNIEnv* env) {
-    static jfieldID fid = env->GetFieldID(
-        DERIVED::getJClass(env), "_nativeHandle", "J");
-    assert(fid != nullptr);
-    return fid;
-  }
-
   // Get the pointer from Java
   static PTR getHandle(JNIEnv* env, jobject jobj) {
     return reinterpret_cast<PTR>(
-        env->GetLongField(jobj, getHandleFieldID(env)));
+        env->GetLongField(jobj, DERIVED::getHandleFieldID(env)));
   }
 
   // Pass the pointer to the java side.
   static void setHandle(JNIEnv* env, jobject jdb, PTR ptr) {
     env->SetLongField(
-        jdb, getHandleFieldID(env),
+        jdb, DERIVED::getHandleFieldID(env),
         reinterpret_cast<jlong>(ptr));
   }
 };
@@ -67,8 +52,13 @@ template<class PTR, class DERIVED> class FooJniClass {
 class FooByCallInvokeJni : public FooJniClass<jnibench::Foo*, FooByCallInvokeJni> {
  public:
   static jclass getJClass(JNIEnv* env) {
-    return FooJniClass::getJClass(env,
-        "com/evolvedbinary/jnibench/common/call/FooByCallInvoke");
+    return g_jni_registry.foo_by_call_invoke_clazz;
+  }
+
+  // Get the field id of the member variable to store
+  // the ptr
+  static jfieldID getHandleFieldID(JNIEnv* env) {
+    return g_jni_registry.foo_by_call_invoke_handle_fid;
   }
 };
 
@@ -76,8 +66,13 @@ class FooByCallInvokeJni : public FooJniClass<jnibench::Foo*, FooByCallInvokeJni
 class FooByCallInvokeFinalJni : public FooJniClass<jnibench::Foo*, FooByCallInvokeFinalJni> {
  public:
   static jclass getJClass(JNIEnv* env) {
-    return FooJniClass::getJClass(env,
-        "com/evolvedbinary/jnibench/common/call/FooByCallInvokeFinal");
+    return g_jni_registry.foo_by_call_invoke_final_clazz;
+  }
+
+  // Get the field id of the member variable to store
+  // the ptr
+  static jfieldID getHandleFieldID(JNIEnv* env) {
+    return g_jni_registry.foo_by_call_invoke_final_handle_fid;
   }
 };
 
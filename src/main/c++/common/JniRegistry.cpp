@@ -0,0 +1,162 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include "JniRegistry.h"
+
+namespace jnibench {
+
+JniRegistry g_jni_registry;
+
+namespace {
+
+// the global references created so far, so that a partial load can be undone
+jclass* const kClazzes[] = {
+  &g_jni_registry.object_clazz,
+  &g_jni_registry.string_clazz,
+  &g_jni_registry.long_clazz,
+  &g_jni_registry.list_clazz,
+  &g_jni_registry.array_list_clazz,
+  &g_jni_registry.byte_buffer_clazz,
+  &g_jni_registry.native_backed_object_clazz,
+  &g_jni_registry.foo_object_clazz,
+  &g_jni_registry.foo_object_columns_clazz,
+  &g_jni_registry.foo_by_call_invoke_clazz,
+  &g_jni_registry.foo_by_call_invoke_final_clazz,
+  &g_jni_registry.runtime_exception_clazz,
+  &g_jni_registry.illegal_argument_exception_clazz,
+  &g_jni_registry.illegal_state_exception_clazz,
+  &g_jni_registry.index_out_of_bounds_exception_clazz,
+  &g_jni_registry.no_such_element_exception_clazz,
+  &g_jni_registry.io_exception_clazz,
+};
+
+bool LoadClass(JNIEnv* env, const char* name, jclass* clazz) {
+  jclass local_clazz = env->FindClass(name);
+  if (local_clazz == nullptr) {
+    // exception thrown: NoClassDefFoundError
+    return false;
+  }
+  *clazz = static_cast<jclass>(env->NewGlobalRef(local_clazz));
+  env->DeleteLocalRef(local_clazz);
+  return *clazz != nullptr;
+}
+
+bool LoadClasses(JNIEnv* env) {
+  JniRegistry& r = g_jni_registry;
+  return LoadClass(env, "java/lang/Object", &r.object_clazz)
+      && LoadClass(env, "java/lang/String", &r.string_clazz)
+      && LoadClass(env, "java/lang/Long", &r.long_clazz)
+      && LoadClass(env, "java/util/List", &r.list_clazz)
+      && LoadClass(env, "java/util/ArrayList", &r.array_list_clazz)
+      && LoadClass(env, "java/nio/ByteBuffer", &r.byte_buffer_clazz)
+      && LoadClass(env, "com/evolvedbinary/jnibench/common/NativeBackedObject", &r.native_backed_object_clazz)
+      && LoadClass(env, "com/evolvedbinary/jnibench/common/array/FooObject", &r.foo_object_clazz)
+      && LoadClass(env, "com/evolvedbinary/jnibench/common/array/AllocateInCppGetColumnar$FooObjectColumns",
+                   &r.foo_object_columns_clazz)
+      && LoadClass(env, "com/evolvedbinary/jnibench/common/call/FooByCallInvoke", &r.foo_by_call_invoke_clazz)
+      && LoadClass(env, "com/evolvedbinary/jnibench/common/call/FooByCallInvokeFinal",
+                   &r.foo_by_call_invoke_final_clazz)
+      && LoadClass(env, "java/lang/RuntimeException", &r.runtime_exception_clazz)
+      && LoadClass(env, "java/lang/IllegalArgumentException", &r.illegal_argument_exception_clazz)
+      && LoadClass(env, "java/lang/IllegalStateException", &r.illegal_state_exception_clazz)
+      && LoadClass(env, "java/lang/IndexOutOfBoundsException", &r.index_out_of_bounds_exception_clazz)
+      && LoadClass(env, "java/util/NoSuchElementException", &r.no_such_element_exception_clazz)
+      && LoadClass(env, "java/io/IOException", &r.io_exception_clazz);
+}
+
+bool LoadMembers(JNIEnv* env) {
+  JniRegistry& r = g_jni_registry;
+  r.long_init_mid = env->GetMethodID(r.long_clazz, "<init>", "(J)V");
+  r.list_add_mid = env->GetMethodID(r.list_clazz, "add", "(Ljava/lang/Object;)Z");
+  r.array_list_init_mid = env->GetMethodID(r.array_list_clazz, "<init>", "(I)V");
+  r.byte_buffer_array_mid = env->GetMethodID(r.byte_buffer_clazz, "array", "()[B");
+  r.byte_buffer_allocate_mid = env->GetStaticMethodID(r.byte_buffer_clazz, "allocate", "(I)Ljava/nio/ByteBuffer;");
+  r.native_backed_object_handle_fid = env->GetFieldID(r.native_backed_object_clazz, "_nativeHandle", "J");
+  r.foo_object_init_mid = env->GetMethodID(r.foo_object_clazz, "<init>", "(Ljava/lang/String;J)V");
+  r.foo_object_name_fid = env->GetFieldID(r.foo_object_clazz, "name", "Ljava/lang/String;");
+  r.foo_object_value_fid = env->GetFieldID(r.foo_object_clazz, "value", "J");
+  r.foo_object_columns_init_mid = env->GetMethodID(r.foo_object_columns_clazz, "<init>", "([J[B[I)V");
+  r.foo_by_call_invoke_handle_fid = env->GetFieldID(r.foo_by_call_invoke_clazz, "_nativeHandle", "J");
+  r.foo_by_call_invoke_final_handle_fid = env->GetFieldID(r.foo_by_call_invoke_final_clazz, "_nativeHandle", "J");
+
+  // each lookup throws NoSuchMethodError or NoSuchFieldError if it fails
+  return r.long_init_mid != nullptr
+      && r.list_add_mid != nullptr
+      && r.array_list_init_mid != nullptr
+      && r.byte_buffer_array_mid != nullptr
+      && r.byte_buffer_allocate_mid != nullptr
+      && r.native_backed_object_handle_fid != nullptr
+      && r.foo_object_init_mid != nullptr
+      && r.foo_object_name_fid != nullptr
+      && r.foo_object_value_fid != nullptr
+      && r.foo_object_columns_init_mid != nullptr
+      && r.foo_by_call_invoke_handle_fid != nullptr
+      && r.foo_by_call_invoke_final_handle_fid != nullptr;
+}
+
+}  // namespace
+
+bool LoadJniRegistry(JNIEnv* env) {
+  g_jni_registry = JniRegistry();
+  if (LoadClasses(env) && LoadMembers(env)) {
+    return true;
+  }
+  UnloadJniRegistry(env);
+  return false;
+}
+
+void UnloadJniRegistry(JNIEnv* env) {
+  for (jclass* clazz : kClazzes) {
+    if (*clazz != nullptr) {
+      env->DeleteGlobalRef(*clazz);
+      *clazz = nullptr;
+    }
+  }
+}
+
+}  // namespace jnibench
+
+jint JNI_OnLoad(JavaVM* vm, void* reserved) {
+  JNIEnv* env;
+  if (vm->GetEnv(reinterpret_cast<void**>(&env), JNI_VERSION_1_6) != JNI_OK) {
+    return JNI_ERR;
+  }
+
+  if (!jnibench::LoadJniRegistry(env)) {
+    return JNI_ERR;
+  }
+
+  return JNI_VERSION_1_6;
+}
+
+void JNI_OnUnload(JavaVM* vm, void* reserved) {
+  JNIEnv* env;
+  if (vm->GetEnv(reinterpret_cast<void**>(&env), JNI_VERSION_1_6) != JNI_OK) {
+    return;
+  }
+
+  jnibench::UnloadJniRegistry(env);
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#ifndef JNI_REGISTRY_H
+#define JNI_REGISTRY_H
+
+#include <jni.h>
+
+namespace jnibench {
+
+/**
+ * Global references to every Java class the library uses, and the IDs of their methods and fields,
+ * resolved once in JNI_OnLoad, rather than with FindClass/GetMethodID/GetFieldID on each call.
+ */
+struct JniRegistry {
+  // java.lang.Object
+  jclass object_clazz;
+
+  // java.lang.String
+  jclass string_clazz;
+
+  // java.lang.Long
+  jclass long_clazz;
+  jmethodID long_init_mid;
+
+  // java.util.List and java.util.ArrayList
+  jclass list_clazz;
+  jmethodID list_add_mid;
+  jclass array_list_clazz;
+  jmethodID array_list_init_mid;
+
+  // java.nio.ByteBuffer
+  jclass byte_buffer_clazz;
+  jmethodID byte_buffer_array_mid;
+  jmethodID byte_buffer_allocate_mid;
+
+  // com.evolvedbinary.jnibench.common.NativeBackedObject
+  jclass native_backed_object_clazz;
+  jfieldID native_backed_object_handle_fid;
+
+  // com.evolvedbinary.jnibench.common.array.FooObject
+  jclass foo_object_clazz;
+  jmethodID foo_object_init_mid;
+  jfieldID foo_object_name_fid;
+  jfieldID foo_object_value_fid;
+
+  // com.evolvedbinary.jnibench.common.array.AllocateInCppGetColumnar.FooObjectColumns
+  jclass foo_object_columns_clazz;
+  jmethodID foo_object_columns_init_mid;
+
+  // com.evolvedbinary.jnibench.common.call.FooByCallInvoke and FooByCallInvokeFinal
+  jclass foo_by_call_invoke_clazz;
+  jfieldID foo_by_call_invoke_handle_fid;
+  jclass foo_by_call_invoke_final_clazz;
+  jfieldID foo_by_call_invoke_final_handle_fid;
+
+  // exceptions thrown by native code
+  jclass runtime_exception_clazz;
+  jclass illegal_argument_exception_clazz;
+  jclass illegal_state_exception_clazz;
+  jclass index_out_of_bounds_exception_clazz;
+  jclass no_such_element_exception_clazz;
+  jclass io_exception_clazz;
+};
+
+extern JniRegistry g_jni_registry;
+
+/**
+ * Resolve the classes and IDs of g_jni_registry, called from JNI_OnLoad.
+ *
+ * @return false if a class or member could not be found, with an exception pending
+ */
+bool LoadJniRegistry(JNIEnv* env);
+
+/**
+ * Delete the global references of g_jni_registry, called from JNI_OnUnload.
+ */
+void UnloadJniRegistry(JNIEnv* env);
+
+}  // namespace jnibench
+
+#endif  // JNI_REGISTRY_H
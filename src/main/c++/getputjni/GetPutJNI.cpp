@@ -27,20 +27,21 @@
 #include <jni.h>
 
 #include <string>
+#include <cstdint>
 #include <cstring>
 #include <iostream>
+#include <vector>
 
 #include "com_evolvedbinary_jnibench_common_getputjni_GetPutJNI.h"
+#include "../common/JniRegistry.h"
 
 /*
  * Turn these into header and factor methods (at least) out from GetByteArray.cpp
  */
-extern const std::string &GetByteArrayInternal(const char *key);
-extern char *GetByteArrayInternalForWrite(const char *key, size_t len);
-
-extern jclass g_jbyte_buffer_clazz;
-extern jmethodID g_jbyte_buffer_array_mid;
-extern jmethodID g_jbyte_buffer_allocate_mid;
+extern const std::string &GetByteArrayInternal(const char *key, size_t key_len);
+extern char *GetByteArrayInternalForWrite(const char *key, size_t key_len, size_t len);
+extern char *AcquireKey(size_t len);
+extern void ReleaseKey(const char *key);
 
 //
 // Common shortcut code for reading the value from the "fake database"
@@ -48,20 +49,97 @@ extern jmethodID g_jbyte_buffer_allocate_mid;
 static const char *GetKey(JNIEnv *env, jbyteArray jkey, jint jkey_off, jint jkey_len)
 {
 
-  jbyte *key = new jbyte[jkey_len];
-  env->GetByteArrayRegion(jkey, jkey_off, jkey_len, key);
+  char *key = AcquireKey(jkey_len);
+  env->GetByteArrayRegion(jkey, jkey_off, jkey_len, reinterpret_cast<jbyte *>(key));
   if (env->ExceptionCheck())
   {
     // exception thrown: OutOfMemoryError
-    delete[] key;
+    ReleaseKey(key);
     return nullptr;
   }
 
-  return reinterpret_cast<char *>(key);
+  return key;
 }
 
 static const int kError = -1;
 
+//
+// Common shortcut code for reading many values from the "fake database"
+// into consecutive slots of a single native buffer, in one JNI call.
+//
+// A values_capacity of -1 means the capacity of values is unknown (e.g. Unsafe memory)
+//
+static jint MultiGetInto(JNIEnv *env, jobjectArray jkeys, jintArray jkey_offs, jintArray jkey_lens,
+                         char *values, jlong values_capacity, jintArray jval_lens)
+{
+  const jsize num_keys = env->GetArrayLength(jkeys);
+  std::vector<jint> key_offs(num_keys);
+  std::vector<jint> key_lens(num_keys);
+  std::vector<jint> val_lens(num_keys);
+  env->GetIntArrayRegion(jkey_offs, 0, num_keys, key_offs.data());
+  env->GetIntArrayRegion(jkey_lens, 0, num_keys, key_lens.data());
+  env->GetIntArrayRegion(jval_lens, 0, num_keys, val_lens.data());
+  if (env->ExceptionCheck())
+  {
+    // exception thrown: ArrayIndexOutOfBoundsException
+    return kError;
+  }
+
+  if (values_capacity >= 0)
+  {
+    jlong total_len = 0;
+    for (jsize i = 0; i < num_keys; i++)
+    {
+      total_len += val_lens[i];
+    }
+    if (values_capacity < total_len)
+    {
+      std::cerr << "Invalid values argument. Capacity is less than the sum of the value lengths." << std::endl;
+      return kError;
+    }
+  }
+
+  // one buffer, large enough for the longest key, is reused for all of them
+  jint max_key_len = 0;
+  for (jsize i = 0; i < num_keys; i++)
+  {
+    max_key_len = std::max(max_key_len, key_lens[i]);
+  }
+  char *key = AcquireKey(static_cast<size_t>(max_key_len));
+
+  size_t val_off = 0;
+  for (jsize i = 0; i < num_keys; i++)
+  {
+    jbyteArray jkey = static_cast<jbyteArray>(env->GetObjectArrayElement(jkeys, i));
+    if (env->ExceptionCheck())
+    {
+      // exception thrown: ArrayIndexOutOfBoundsException
+      ReleaseKey(key);
+      return kError;
+    }
+    env->GetByteArrayRegion(jkey, key_offs[i], key_lens[i], reinterpret_cast<jbyte *>(key));
+    env->DeleteLocalRef(jkey);
+    if (env->ExceptionCheck())
+    {
+      // exception thrown: ArrayIndexOutOfBoundsException
+      ReleaseKey(key);
+      return kError;
+    }
+
+    const std::string &cvalue = GetByteArrayInternal(key, key_lens[i]);
+    const size_t get_size = std::min(static_cast<size_t>(val_lens[i]), cvalue.size());
+    memcpy(values + val_off, cvalue.c_str(), get_size);
+
+    val_off += static_cast<size_t>(val_lens[i]);
+    val_lens[i] = static_cast<jint>(get_size);
+  }
+  ReleaseKey(key);
+
+  env->SetIntArrayRegion(jval_lens, 0, num_keys, val_lens.data());
+
+  return num_keys;
+}
+
 /*
  * Class:     com_evolvedbinary_jnibench_common_getputjni_GetPutJNI
  * Method:    getIntoDirectByteBufferAllocate
@@ -74,8 +152,8 @@ jobject Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoDirect
   {
     return nullptr;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
   return nullptr;
 
@@ -94,8 +172,8 @@ jobject Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoDirect
   {
     return nullptr;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
   void *buffer_memory = reinterpret_cast<void *>(jval_unsafe_handle);
   jobject byte_buffer = env->NewDirectByteBuffer(buffer_memory, jval_len);
@@ -118,8 +196,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoUnsafe(JN
   {
     return kError;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
   void *buffer_memory = reinterpret_cast<void *>(jval_unsafe_handle);
   size_t get_size = std::min(static_cast<size_t>(jval_len), cvalue.size());
@@ -140,8 +218,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromUnsafe(JN
   {
     return kError;
   }
-  char *db_buf = GetByteArrayInternalForWrite(key, jval_len);
-  delete[] key;
+  char *db_buf = GetByteArrayInternalForWrite(key, jkey_len, jval_len);
+  ReleaseKey(key);
 
   void *buffer_memory = reinterpret_cast<void *>(jval_unsafe_handle);
   memcpy(db_buf, buffer_memory, jval_len);
@@ -161,8 +239,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoDirectByt
   {
     return kError;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
   char *byte_buffer = reinterpret_cast<char *>(env->GetDirectBufferAddress(jval_byte_buffer));
   if (byte_buffer == nullptr)
@@ -193,8 +271,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromDirectByt
   {
     return kError;
   }
-  char *db_buf = GetByteArrayInternalForWrite(key, jval_len);
-  delete[] key;
+  char *db_buf = GetByteArrayInternalForWrite(key, jkey_len, jval_len);
+  ReleaseKey(key);
 
   char *byte_buffer = reinterpret_cast<char *>(env->GetDirectBufferAddress(jval_byte_buffer));
   if (byte_buffer == nullptr)
@@ -225,8 +303,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoByteArray
   {
     return kError;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
   size_t get_size = std::min(static_cast<size_t>(jval_len), cvalue.size());
   env->SetByteArrayRegion(jval_byte_array, 0, get_size, const_cast<jbyte *>(reinterpret_cast<const jbyte *>(cvalue.c_str())));
@@ -246,8 +324,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromByteArray
   {
     return kError;
   }
-  char *db_buf = GetByteArrayInternalForWrite(key, jval_len);
-  delete[] key;
+  char *db_buf = GetByteArrayInternalForWrite(key, jkey_len, jval_len);
+  ReleaseKey(key);
 
   env->GetByteArrayRegion(jval_byte_array, 0, jval_len, const_cast<jbyte *>(reinterpret_cast<const jbyte *>(db_buf)));
 
@@ -266,8 +344,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoByteArray
   {
     return kError;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
   jboolean is_copy;
   jbyte *array_elements = env->GetByteArrayElements(jval_byte_array, &is_copy);
@@ -290,8 +368,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromByteArray
   {
     return kError;
   }
-  char *db_buf = GetByteArrayInternalForWrite(key, jval_len);
-  delete[] key;
+  char *db_buf = GetByteArrayInternalForWrite(key, jkey_len, jval_len);
+  ReleaseKey(key);
 
   jboolean is_copy;
   jbyte *array_elements = env->GetByteArrayElements(jval_byte_array, &is_copy);
@@ -313,8 +391,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoByteArray
   {
     return kError;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
   jboolean is_copy;
   void *array_elements = env->GetPrimitiveArrayCritical(jval_byte_array, &is_copy);
@@ -337,8 +415,8 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromByteArray
   {
     return kError;
   }
-  char *db_buf = GetByteArrayInternalForWrite(key, jval_len);
-  delete[] key;
+  char *db_buf = GetByteArrayInternalForWrite(key, jkey_len, jval_len);
+  ReleaseKey(key);
 
   jboolean is_copy;
   void *array_elements = env->GetPrimitiveArrayCritical(jval_byte_array, &is_copy);
@@ -361,10 +439,10 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoIndirectB
   {
     return kError;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
-  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, g_jbyte_buffer_array_mid));
+  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, jnibench::g_jni_registry.byte_buffer_array_mid));
   if (env->ExceptionCheck())
   {
     std::cerr << "Invalid call to object method. Byte buffer array." << std::endl;
@@ -377,15 +455,82 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoIndirectB
   return get_size;
 }
 
-extern "C" int getIntoMemorySegment(const char* key, char* dest, int dest_len) {
-    std::string value = GetByteArrayInternal(key);
+//
+// Read the length prefix at off, and advance off past it,
+// if both the prefix and the len bytes which follow it are within the batch
+//
+static bool ReadRecordLength(const char *batch, jint batch_len, jint &off, int32_t &len)
+{
+  if (batch_len - off < static_cast<jint>(sizeof(len)))
+  {
+    return false;
+  }
+  memcpy(&len, batch + off, sizeof(len));
+  if (len < 0 || len > batch_len - off - static_cast<jint>(sizeof(len)))
+  {
+    return false;
+  }
+  off += sizeof(len);
+  return true;
+}
+
+//
+// Common shortcut code for writing the length-prefixed records of a WriteBatch to the "fake database"
+//
+static jint PutBatchFrom(const char *batch, jint batch_len)
+{
+  jint count = 0;
+  jint off = 0;
+  while (off < batch_len)
+  {
+    int32_t key_len;
+    if (!ReadRecordLength(batch, batch_len, off, key_len))
+    {
+      std::cerr << "Invalid batch argument. Record is longer than the batch." << std::endl;
+      return kError;
+    }
+    const char *key = batch + off;
+    off += key_len;
+
+    int32_t val_len;
+    if (!ReadRecordLength(batch, batch_len, off, val_len))
+    {
+      std::cerr << "Invalid batch argument. Record is longer than the batch." << std::endl;
+      return kError;
+    }
+
+    char *db_buf = GetByteArrayInternalForWrite(key, key_len, val_len);
+    memcpy(db_buf, batch + off, val_len);
+    off += val_len;
+
+    count++;
+  }
+
+  return count;
+}
+
+extern "C" int getIntoMemorySegment(const char* key, int key_len, char* dest, int dest_len) {
+    std::string value = GetByteArrayInternal(key, key_len);
     int size = std::min((int)value.size(), dest_len);
     memcpy(dest, value.c_str(), size);
     return size;
 }
 
-extern "C" int putFromMemorySegment(const char* key, const char* src, int src_len) {
-    char *db_buf = GetByteArrayInternalForWrite(key, src_len);
+extern "C" int multiGetIntoMemorySegment(int num_keys, const char* keys, const int* key_offsets, const int* key_lens,
+                                         char* dest, int* dest_lens) {
+    int dest_off = 0;
+    for (int i = 0; i < num_keys; i++) {
+        const std::string &value = GetByteArrayInternal(keys + key_offsets[i], key_lens[i]);
+        const int size = std::min((int)value.size(), dest_lens[i]);
+        memcpy(dest + dest_off, value.c_str(), size);
+        dest_off += dest_lens[i];
+        dest_lens[i] = size;
+    }
+    return num_keys;
+}
+
+extern "C" int putFromMemorySegment(const char* key, int key_len, const char* src, int src_len) {
+    char *db_buf = GetByteArrayInternalForWrite(key, key_len, src_len);
     memcpy(db_buf, src, src_len);
     return src_len;
 }
@@ -403,10 +548,10 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromIndirectB
   {
     return kError;
   }
-  char *db_buf = GetByteArrayInternalForWrite(key, jval_len);
-  delete[] key;
+  char *db_buf = GetByteArrayInternalForWrite(key, jkey_len, jval_len);
+  ReleaseKey(key);
 
-  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, g_jbyte_buffer_array_mid));
+  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, jnibench::g_jni_registry.byte_buffer_array_mid));
   if (env->ExceptionCheck())
   {
     std::cerr << "Invalid call to object method. Byte buffer array." << std::endl;
@@ -431,10 +576,10 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoIndirectB
   {
     return kError;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
-  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, g_jbyte_buffer_array_mid));
+  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, jnibench::g_jni_registry.byte_buffer_array_mid));
   if (env->ExceptionCheck())
   {
     std::cerr << "Invalid call to object method. Byte buffer array." << std::endl;
@@ -463,10 +608,10 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromIndirectB
   {
     return kError;
   }
-  char *db_buf = GetByteArrayInternalForWrite(key, jval_len);
-  delete[] key;
+  char *db_buf = GetByteArrayInternalForWrite(key, jkey_len, jval_len);
+  ReleaseKey(key);
 
-  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, g_jbyte_buffer_array_mid));
+  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, jnibench::g_jni_registry.byte_buffer_array_mid));
   if (env->ExceptionCheck())
   {
     std::cerr << "Invalid call to object method. Byte buffer array." << std::endl;
@@ -494,10 +639,10 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_getIntoIndirectB
   {
     return kError;
   }
-  std::string cvalue = GetByteArrayInternal(key);
-  delete[] key;
+  std::string cvalue = GetByteArrayInternal(key, jkey_len);
+  ReleaseKey(key);
 
-  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, g_jbyte_buffer_array_mid));
+  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, jnibench::g_jni_registry.byte_buffer_array_mid));
   if (env->ExceptionCheck())
   {
     std::cerr << "Invalid call to object method. Byte buffer array." << std::endl;
@@ -526,10 +671,10 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromIndirectB
   {
     return kError;
   }
-  char *db_buf = GetByteArrayInternalForWrite(key, jval_len);
-  delete[] key;
+  char *db_buf = GetByteArrayInternalForWrite(key, jkey_len, jval_len);
+  ReleaseKey(key);
 
-  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, g_jbyte_buffer_array_mid));
+  jbyteArray buffer_internal_byte_array = static_cast<jbyteArray>(env->CallObjectMethod(jval_byte_buffer, jnibench::g_jni_registry.byte_buffer_array_mid));
   if (env->ExceptionCheck())
   {
     std::cerr << "Invalid call to object method. Byte buffer array." << std::endl;
@@ -543,3 +688,57 @@ jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putFromIndirectB
 
   return jval_len;
 }
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_getputjni_GetPutJNI
+ * Method:    multiGetIntoDirectByteBuffer
+ * Signature: ([[B[I[ILjava/nio/ByteBuffer;[I)I
+ */
+jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_multiGetIntoDirectByteBuffer(
+    JNIEnv *env, jclass, jobjectArray jkeys, jintArray jkey_offs, jintArray jkey_lens, jobject jval_byte_buffer, jintArray jval_lens)
+{
+  char *byte_buffer = reinterpret_cast<char *>(env->GetDirectBufferAddress(jval_byte_buffer));
+  if (byte_buffer == nullptr)
+  {
+    std::cerr << "Invalid value argument (argument is not a valid direct ByteBuffer)" << std::endl;
+    return kError;
+  }
+
+  return MultiGetInto(env, jkeys, jkey_offs, jkey_lens, byte_buffer, env->GetDirectBufferCapacity(jval_byte_buffer), jval_lens);
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_getputjni_GetPutJNI
+ * Method:    multiGetIntoUnsafe
+ * Signature: ([[B[I[IJ[I)I
+ */
+jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_multiGetIntoUnsafe(
+    JNIEnv *env, jclass, jobjectArray jkeys, jintArray jkey_offs, jintArray jkey_lens, jlong jval_unsafe_handle, jintArray jval_lens)
+{
+  char *buffer_memory = reinterpret_cast<char *>(jval_unsafe_handle);
+
+  return MultiGetInto(env, jkeys, jkey_offs, jkey_lens, buffer_memory, -1, jval_lens);
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_getputjni_GetPutJNI
+ * Method:    putBatchFromDirectByteBuffer
+ * Signature: (Ljava/nio/ByteBuffer;I)I
+ */
+jint Java_com_evolvedbinary_jnibench_common_getputjni_GetPutJNI_putBatchFromDirectByteBuffer(
+    JNIEnv *env, jclass, jobject jbatch_byte_buffer, jint jbatch_len)
+{
+  char *batch = reinterpret_cast<char *>(env->GetDirectBufferAddress(jbatch_byte_buffer));
+  if (batch == nullptr)
+  {
+    std::cerr << "Invalid batch argument (argument is not a valid direct ByteBuffer)" << std::endl;
+    return kError;
+  }
+  if (jbatch_len < 0 || env->GetDirectBufferCapacity(jbatch_byte_buffer) < jbatch_len)
+  {
+    std::cerr << "Invalid batch argument. Byte buffer capacity is less than requested length." << std::endl;
+    return kError;
+  }
+
+  return PutBatchFrom(batch, jbatch_len);
+}
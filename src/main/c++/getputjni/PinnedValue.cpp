@@ -0,0 +1,139 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of the <organization> nor the
+ *       names of its contributors may be used to endorse or promote products
+ *       derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+#include <jni.h>
+
+#include <atomic>
+#include <cstdint>
+#include <string>
+
+#include "com_evolvedbinary_jnibench_common_getputjni_PinnedValue.h"
+#include "../common/JniRegistry.h"
+
+extern const std::string &GetByteArrayInternal(const char *key, size_t key_len);
+extern char *AcquireKey(size_t len);
+extern void ReleaseKey(const char *key);
+
+/*
+ * Pins values in the "fake database" so that they can be read in place,
+ * much like a PinnableSlice does; a value stays valid until it is released,
+ * as the mock db refuses to change while any value is pinned, see HasPinnedValues().
+ *
+ * The handle of a pinned value is the address of the value, so pinning allocates nothing.
+ * The pins are counted in stripes, so that threads pinning values do not contend on one counter;
+ * a value may be released by a different thread than pinned it, so only the sum of the stripes is meaningful.
+ */
+struct alignas(64) PinCount {
+    std::atomic<int64_t> count;
+};
+
+static const size_t PIN_STRIPES = 64;
+static PinCount PIN_COUNTS[PIN_STRIPES];
+static std::atomic<size_t> NEXT_PIN_STRIPE(0);
+
+static std::atomic<int64_t> &ThreadPinCount() {
+    static thread_local std::atomic<int64_t> *pin_count =
+        &PIN_COUNTS[NEXT_PIN_STRIPE.fetch_add(1, std::memory_order_relaxed) % PIN_STRIPES].count;
+    return *pin_count;
+}
+
+static const char *Pin(const std::string &value) {
+    ThreadPinCount().fetch_add(1, std::memory_order_relaxed);
+    return value.data();
+}
+
+static void Unpin() {
+    ThreadPinCount().fetch_sub(1, std::memory_order_relaxed);
+}
+
+//
+// Whether any value is pinned, in which case the mock db must not be changed
+//
+bool HasPinnedValues() {
+    int64_t pinned = 0;
+    for (size_t i = 0; i < PIN_STRIPES; i++) {
+        pinned += PIN_COUNTS[i].count.load(std::memory_order_acquire);
+    }
+    return pinned != 0;
+}
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_getputjni_PinnedValue
+ * Method:    pinInternal
+ * Signature: ([BII)Ljava/nio/ByteBuffer;
+ */
+JNIEXPORT jobject JNICALL Java_com_evolvedbinary_jnibench_common_getputjni_PinnedValue_pinInternal
+  (JNIEnv *env, jobject jpinned_value, jbyteArray jkey, jint jkey_off, jint jkey_len) {
+    char* key = AcquireKey(jkey_len);
+    env->GetByteArrayRegion(jkey, jkey_off, jkey_len, reinterpret_cast<jbyte*>(key));
+    if (env->ExceptionCheck()) {
+        // exception thrown: ArrayIndexOutOfBoundsException
+        ReleaseKey(key);
+        return nullptr;
+    }
+    const std::string& value = GetByteArrayInternal(key, jkey_len);
+    ReleaseKey(key);
+
+    // the buffer aliases the pinned value, which must never be written through it
+    jobject jvalue = env->NewDirectByteBuffer(const_cast<char*>(value.data()), static_cast<jlong>(value.size()));
+    if (jvalue == nullptr) {
+        // exception thrown: OutOfMemoryError
+        return nullptr;
+    }
+    const char* handle = Pin(value);
+    env->SetLongField(jpinned_value, jnibench::g_jni_registry.native_backed_object_handle_fid,
+                      reinterpret_cast<jlong>(handle));
+    return jvalue;
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_getputjni_PinnedValue
+ * Method:    disposeInternal
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_com_evolvedbinary_jnibench_common_getputjni_PinnedValue_disposeInternal
+  (JNIEnv *, jclass, jlong) {
+    Unpin();
+}
+
+extern "C" void* getPinned(const char* key, int key_len, const char** value, int* value_len) {
+    const std::string& pinned_value = GetByteArrayInternal(key, key_len);
+    *value = Pin(pinned_value);
+    *value_len = static_cast<int>(pinned_value.size());
+    return const_cast<char*>(*value);
+}
+
+extern "C" void releasePinned(void*) {
+    Unpin();
+}
+
+#ifdef __cplusplus
+}
+#endif
@@ -27,22 +27,60 @@
 #include "Iterator.h"
 #include <stdexcept>
 #include <algorithm>
+#include <cstdint>
+#include <cstdio>
+#include <cstring>
+#include <string>
 
-Iterator::Iterator(int num_elements, size_t element_size)
-    : m_num_elements(num_elements), m_element_size(element_size), m_current_index(0) {
+namespace {
 
-    m_elements.reserve(num_elements);
+// four random bytes from each draw, so that creating the iterator does not swamp iterating it
+void FillRandom(std::mt19937& gen, char* dest, size_t size) {
+    for (size_t j = 0; j < size; j += sizeof(uint32_t)) {
+        const uint32_t word = static_cast<uint32_t>(gen());
+        std::memcpy(dest + j, &word, std::min(sizeof(uint32_t), size - j));
+    }
+}
+
+}  // namespace
+
+Iterator::Iterator(int num_elements, size_t element_size, Layout layout)
+    : m_num_elements(num_elements), m_element_size(element_size), m_current_index(0),
+      m_begin(0), m_limit(num_elements) {
+
+    auto elements = std::make_shared<Elements>();
+    elements->layout = layout;
+    elements->count = num_elements;
 
     std::random_device rd;
     std::mt19937 gen(rd());
-    std::uniform_int_distribution<int> dis(0, 255);
 
-    for (int i = 0; i < num_elements; ++i) {
-        std::vector<char> element(element_size);
-        std::generate(element.begin(), element.end(), [&]() {
-            return static_cast<char>(dis(gen));
-        });
-        m_elements.push_back(std::move(element));
+    if (layout == Layout::ARENA) {
+        const size_t num = static_cast<size_t>(num_elements);
+        elements->arena.reset(new char[num * element_size]);
+        elements->offsets.reserve(num + 1);
+        for (size_t i = 0; i <= num; ++i) {
+            elements->offsets.push_back(i * element_size);
+        }
+        FillRandom(gen, elements->arena.get(), num * element_size);
+    } else {
+        elements->vectors.reserve(num_elements);
+        for (int i = 0; i < num_elements; ++i) {
+            std::vector<char> element(element_size);
+            FillRandom(gen, element.data(), element_size);
+            elements->vectors.push_back(std::move(element));
+        }
+    }
+    m_elements = std::move(elements);
+}
+
+Iterator::Iterator(const Iterator& source, int begin, int end)
+    : m_num_elements(end), m_element_size(source.m_element_size), m_current_index(begin),
+      m_begin(begin), m_limit(end),
+      m_elements(source.m_elements) {
+
+    if (begin < 0 || begin > end || end > m_elements->count) {
+        throw std::out_of_range("Range is outside of the iterator");
     }
 }
 
@@ -50,9 +88,84 @@ bool Iterator::hasNext() const {
     return m_current_index < m_num_elements;
 }
 
-const std::vector<char>& Iterator::next() {
+Iterator::Element Iterator::next() {
     if (!hasNext()) {
         throw std::out_of_range("No more elements in iterator");
     }
-    return m_elements[m_current_index++];
+    return at(m_current_index++);
+}
+
+Iterator::Element Iterator::peek() const {
+    if (!hasNext()) {
+        throw std::out_of_range("No more elements in iterator");
+    }
+    return at(m_current_index);
+}
+
+bool Iterator::hasPrev() const {
+    return m_current_index > m_begin;
+}
+
+Iterator::Element Iterator::prev() {
+    if (!hasPrev()) {
+        throw std::out_of_range("No previous element in iterator");
+    }
+    return at(--m_current_index);
+}
+
+void Iterator::seek(int index) {
+    m_current_index = std::max(m_begin, std::min(index, m_num_elements));
+}
+
+void Iterator::seekForPrev(int index) {
+    // prev() returns the element before the position
+    seek(index < m_num_elements ? index + 1 : m_num_elements);
+}
+
+void Iterator::setUpperBound(int upper_bound) {
+    m_num_elements = std::max(m_begin, std::min(upper_bound, m_limit));
+    m_current_index = std::min(m_current_index, m_num_elements);
+}
+
+Iterator::Element Iterator::at(int index) const {
+    const Elements& elements = *m_elements;
+    if (elements.layout == Layout::ARENA) {
+        const size_t offset = elements.offsets[index];
+        return Element(elements.arena.get() + offset, elements.offsets[index + 1] - offset);
+    }
+    const std::vector<char>& element = elements.vectors[index];
+    return Element(element.data(), element.size());
+}
+
+int Iterator::position() const {
+    return m_current_index;
+}
+
+int Iterator::end() const {
+    return m_num_elements;
+}
+
+long long Iterator::exportSnapshot(const char* path) const {
+    std::FILE* file = std::fopen(path, "wb");
+    if (file == nullptr) {
+        throw std::runtime_error(std::string("Unable to create snapshot: ") + path);
+    }
+    std::vector<char> buffer(1 << 20);
+    std::setvbuf(file, buffer.data(), _IOFBF, buffer.size());
+
+    const int32_t count = m_num_elements - m_current_index;
+    bool ok = std::fwrite(&count, sizeof(count), 1, file) == 1;
+    long long written = sizeof(count);
+    for (int i = m_current_index; ok && i < m_num_elements; ++i) {
+        const Element element = at(i);
+        const int32_t length = static_cast<int32_t>(element.size());
+        ok = std::fwrite(&length, sizeof(length), 1, file) == 1
+            && std::fwrite(element.data(), 1, element.size(), file) == element.size();
+        written += sizeof(length) + element.size();
+    }
+    ok = std::fclose(file) == 0 && ok;
+    if (!ok) {
+        throw std::runtime_error(std::string("Unable to write snapshot: ") + path);
+    }
+    return written;
 }
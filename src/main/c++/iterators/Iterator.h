@@ -29,15 +29,46 @@
 
 #include <vector>
 #include <cstddef>
+#include <memory>
 #include <random>
 
 class Iterator {
 public:
+    /**
+     * How the generated elements are stored.
+     */
+    enum class Layout {
+        // a separate std::vector<char> for each element
+        VECTORS = 0,
+        // one contiguous buffer for all of the elements, with a table of their offsets
+        ARENA = 1
+    };
+
+    /**
+     * A view of an element, which is valid for as long as any iterator over it.
+     */
+    class Element {
+    public:
+        Element(const char* data, size_t size) : m_data(data), m_size(size) {}
+        const char* data() const { return m_data; }
+        size_t size() const { return m_size; }
+    private:
+        const char* m_data;
+        size_t m_size;
+    };
+
     /**
      * @param num_elements Number of elements to generate.
      * @param element_size Size of each individual element in bytes.
+     * @param layout How to store the elements.
      */
-    Iterator(int num_elements, size_t element_size);
+    Iterator(int num_elements, size_t element_size, Layout layout = Layout::VECTORS);
+
+    /**
+     * An independent cursor over the elements [begin, end) of another iterator,
+     * which shares, rather than copies, the elements.
+     */
+    Iterator(const Iterator& source, int begin, int end);
 
     /**
      * @return true if the iteration has more elements.
@@ -49,13 +80,82 @@ public:
      * Note: In a real Java Iterator, next() returns the element.
      * Here we return a pointer to the random data.
      */
-    const std::vector<char>& next();
+    Element next();
+
+    /**
+     * @return The element which next() would return, without advancing.
+     */
+    Element peek() const;
+
+    /**
+     * @return true if there is an element before the current position.
+     */
+    bool hasPrev() const;
+
+    /**
+     * @return The element before the current position, moving back over it,
+     * so a following next() returns it again.
+     */
+    Element prev();
+
+    /**
+     * Position so that next() returns the first element at or after index,
+     * clamped to the bounds of the iteration.
+     */
+    void seek(int index);
+
+    /**
+     * Position so that prev() returns the last element at or before index,
+     * clamped to the bounds of the iteration.
+     */
+    void seekForPrev(int index);
+
+    /**
+     * Stop the iteration before the element at upper_bound, which is clamped to the elements
+     * this iterator was created over, so a bound past them removes it.
+     * The position is moved back to the bound if it is past it.
+     */
+    void setUpperBound(int upper_bound);
+
+    /**
+     * @return The index of the element which next() would return.
+     */
+    int position() const;
+
+    /**
+     * @return The index after the last element of the iteration.
+     */
+    int end() const;
+
+    /**
+     * Write the remaining elements, without advancing, to a file as a 32 bit element count
+     * followed by each element as a 32 bit length and its bytes, all in native byte order.
+     *
+     * @return the size of the file in bytes.
+     * @throws std::runtime_error if the file cannot be written.
+     */
+    long long exportSnapshot(const char* path) const;
 
 private:
+    struct Elements {
+        Layout layout;
+        int count;
+        std::vector<std::vector<char>> vectors;
+        std::unique_ptr<char[]> arena;
+        // num_elements + 1 offsets into arena, so the size of an element is the distance to the next offset
+        std::vector<size_t> offsets;
+    };
+
+    Element at(int index) const;
+
+    // the index after the last element of the iteration, which is the upper bound if one is set
     int m_num_elements;
     size_t m_element_size;
     int m_current_index;
-    std::vector<std::vector<char>> m_elements;
+    // the elements this iterator was created over are [m_begin, m_limit)
+    int m_begin;
+    int m_limit;
+    std::shared_ptr<const Elements> m_elements;
 };
 
 #endif // ITERATOR_H
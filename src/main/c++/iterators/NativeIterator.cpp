@@ -31,6 +31,50 @@
 #include <stdexcept>
 
 #include "Iterator.h"
+#include "../common/JniRegistry.h"
+
+/**
+ * Pack as many of the next elements as fit, one after another, into dest.
+ *
+ * @return the number of elements packed, 0 when the iterator is exhausted,
+ *     or -1 when the next element does not fit into dest at all.
+ */
+static int FillBatch(Iterator* iterator, char* dest, size_t dest_len, int* lengths, int max_count) {
+    size_t offset = 0;
+    int count = 0;
+    while (count < max_count && iterator->hasNext()) {
+        const size_t size = iterator->peek().size();
+        if (size > dest_len - offset) {
+            break;
+        }
+        const Iterator::Element data = iterator->next();
+        std::memcpy(dest + offset, data.data(), size);
+        lengths[count++] = static_cast<int>(size);
+        offset += size;
+    }
+    if (count == 0 && max_count > 0 && iterator->hasNext()) {
+        return -1;
+    }
+    return count;
+}
+
+static jbyteArray ToByteArray(JNIEnv* env, const Iterator::Element& data) {
+    jbyteArray result = env->NewByteArray(static_cast<jsize>(data.size()));
+    if (result == nullptr) {
+        return nullptr;
+    }
+    env->SetByteArrayRegion(result, 0, static_cast<jsize>(data.size()), reinterpret_cast<const jbyte*>(data.data()));
+    return result;
+}
+
+static void ThrowNoSuchElement(JNIEnv* env, const char* message) {
+    env->ThrowNew(jnibench::g_jni_registry.no_such_element_exception_clazz, message);
+}
+
+static jint ThrowElementTooLarge(JNIEnv* env) {
+    env->ThrowNew(jnibench::g_jni_registry.illegal_argument_exception_clazz, "Buffer is too small for the next element");
+    return -1;
+}
 
 #ifdef __cplusplus
 extern "C" {
@@ -39,14 +83,76 @@ extern "C" {
 /*
  * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
  * Method:    createIterator
- * Signature: (IJ)J
+ * Signature: (IJI)J
  */
 JNIEXPORT jlong JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_createIterator
-  (JNIEnv *env, jobject obj, jint num_elements, jlong element_size) {
-    Iterator* iterator = new Iterator(num_elements, static_cast<size_t>(element_size));
+  (JNIEnv *env, jobject obj, jint num_elements, jlong element_size, jint layout) {
+    Iterator* iterator = new Iterator(num_elements, static_cast<size_t>(element_size),
+                                      static_cast<Iterator::Layout>(layout));
     return reinterpret_cast<jlong>(iterator);
 }
 
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    createRange
+ * Signature: (JII)J
+ */
+JNIEXPORT jlong JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_createRange
+  (JNIEnv *env, jobject obj, jlong handle, jint begin, jint end) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    try {
+        return reinterpret_cast<jlong>(new Iterator(*iterator, begin, end));
+    } catch (const std::out_of_range& e) {
+        env->ThrowNew(jnibench::g_jni_registry.index_out_of_bounds_exception_clazz, e.what());
+        return 0;
+    }
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    position
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_position
+  (JNIEnv *env, jobject obj, jlong handle) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    return iterator->position();
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    end
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_end
+  (JNIEnv *env, jobject obj, jlong handle) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    return iterator->end();
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    exportSnapshot
+ * Signature: (JLjava/lang/String;)J
+ */
+JNIEXPORT jlong JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_exportSnapshot
+  (JNIEnv *env, jobject obj, jlong handle, jstring path) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    const char* file_path = env->GetStringUTFChars(path, nullptr);
+    if (file_path == nullptr) {
+        return -1;
+    }
+    try {
+        const long long size = iterator->exportSnapshot(file_path);
+        env->ReleaseStringUTFChars(path, file_path);
+        return static_cast<jlong>(size);
+    } catch (const std::runtime_error& e) {
+        env->ReleaseStringUTFChars(path, file_path);
+        env->ThrowNew(jnibench::g_jni_registry.io_exception_clazz, e.what());
+        return -1;
+    }
+}
+
 /*
  * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
  * Method:    hasNext
@@ -67,22 +173,140 @@ JNIEXPORT jbyteArray JNICALL Java_com_evolvedbinary_jnibench_common_iterators_Na
   (JNIEnv *env, jobject obj, jlong handle) {
     Iterator* iterator = reinterpret_cast<Iterator*>(handle);
     try {
-        const std::vector<char>& data = iterator->next();
-        jbyteArray result = env->NewByteArray(static_cast<jsize>(data.size()));
-        if (result == nullptr) {
-            return nullptr;
-        }
-        env->SetByteArrayRegion(result, 0, static_cast<jsize>(data.size()), reinterpret_cast<const jbyte*>(data.data()));
-        return result;
+        return ToByteArray(env, iterator->next());
     } catch (const std::out_of_range& e) {
-        jclass exClass = env->FindClass("java/util/NoSuchElementException");
-        if (exClass != nullptr) {
-            env->ThrowNew(exClass, e.what());
-        }
+        ThrowNoSuchElement(env, e.what());
+        return nullptr;
+    }
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    hasPrev
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_hasPrev
+  (JNIEnv *env, jobject obj, jlong handle) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    return iterator->hasPrev() ? JNI_TRUE : JNI_FALSE;
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    prev
+ * Signature: (J)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_prev
+  (JNIEnv *env, jobject obj, jlong handle) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    try {
+        return ToByteArray(env, iterator->prev());
+    } catch (const std::out_of_range& e) {
+        ThrowNoSuchElement(env, e.what());
         return nullptr;
     }
 }
 
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    seek
+ * Signature: (JI)V
+ */
+JNIEXPORT void JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_seek
+  (JNIEnv *env, jobject obj, jlong handle, jint index) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    iterator->seek(index);
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    seekForPrev
+ * Signature: (JI)V
+ */
+JNIEXPORT void JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_seekForPrev
+  (JNIEnv *env, jobject obj, jlong handle, jint index) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    iterator->seekForPrev(index);
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    setUpperBound
+ * Signature: (JI)V
+ */
+JNIEXPORT void JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_setUpperBound
+  (JNIEnv *env, jobject obj, jlong handle, jint upper_bound) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    iterator->setUpperBound(upper_bound);
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    nextBatchDirect
+ * Signature: (JLjava/nio/ByteBuffer;II[II)I
+ */
+JNIEXPORT jint JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_nextBatchDirect
+  (JNIEnv *env, jobject obj, jlong handle, jobject jdest, jint dest_off, jint dest_len, jintArray jlengths, jint max_count) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    char* dest = static_cast<char*>(env->GetDirectBufferAddress(jdest));
+    if (dest == nullptr) {
+        env->ThrowNew(jnibench::g_jni_registry.illegal_argument_exception_clazz, "ByteBuffer is not direct");
+        return -1;
+    }
+
+    jint* lengths = static_cast<jint*>(env->GetPrimitiveArrayCritical(jlengths, nullptr));
+    if (lengths == nullptr) {
+        return -1;
+    }
+    const int count = FillBatch(iterator, dest + dest_off, static_cast<size_t>(dest_len), lengths, max_count);
+    env->ReleasePrimitiveArrayCritical(jlengths, lengths, 0);
+
+    return count < 0 ? ThrowElementTooLarge(env) : count;
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    nextBatchArray
+ * Signature: (J[BII[II)I
+ */
+JNIEXPORT jint JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_nextBatchArray
+  (JNIEnv *env, jobject obj, jlong handle, jbyteArray jdest, jint dest_off, jint dest_len, jintArray jlengths, jint max_count) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    char* dest = static_cast<char*>(env->GetPrimitiveArrayCritical(jdest, nullptr));
+    if (dest == nullptr) {
+        return -1;
+    }
+    jint* lengths = static_cast<jint*>(env->GetPrimitiveArrayCritical(jlengths, nullptr));
+    if (lengths == nullptr) {
+        env->ReleasePrimitiveArrayCritical(jdest, dest, JNI_ABORT);
+        return -1;
+    }
+    const int count = FillBatch(iterator, dest + dest_off, static_cast<size_t>(dest_len), lengths, max_count);
+    env->ReleasePrimitiveArrayCritical(jlengths, lengths, 0);
+    env->ReleasePrimitiveArrayCritical(jdest, dest, 0);
+
+    return count < 0 ? ThrowElementTooLarge(env) : count;
+}
+
+/*
+ * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
+ * Method:    nextBatchAddress
+ * Signature: (JJI[II)I
+ */
+JNIEXPORT jint JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIterator_nextBatchAddress
+  (JNIEnv *env, jobject obj, jlong handle, jlong dest_address, jint dest_len, jintArray jlengths, jint max_count) {
+    Iterator* iterator = reinterpret_cast<Iterator*>(handle);
+    jint* lengths = static_cast<jint*>(env->GetPrimitiveArrayCritical(jlengths, nullptr));
+    if (lengths == nullptr) {
+        return -1;
+    }
+    const int count = FillBatch(iterator, reinterpret_cast<char*>(dest_address), static_cast<size_t>(dest_len),
+                                lengths, max_count);
+    env->ReleasePrimitiveArrayCritical(jlengths, lengths, 0);
+
+    return count < 0 ? ThrowElementTooLarge(env) : count;
+}
+
 /*
  * Class:     com_evolvedbinary_jnibench_common_iterators_NativeIterator
  * Method:    disposeInternal
@@ -94,8 +318,8 @@ JNIEXPORT void JNICALL Java_com_evolvedbinary_jnibench_common_iterators_NativeIt
     delete iterator;
 }
 
-extern "C" void* iterator_create(int num_elements, size_t element_size) {
-    return new Iterator(num_elements, element_size);
+extern "C" void* iterator_create(int num_elements, size_t element_size, int layout) {
+    return new Iterator(num_elements, element_size, static_cast<Iterator::Layout>(layout));
 }
 
 extern "C" int iterator_has_next(void* handle) {
@@ -115,6 +339,52 @@ extern "C" int iterator_next(void* handle, char* dest, int dest_len) {
     }
 }
 
+extern "C" int iterator_has_prev(void* handle) {
+    auto* iterator = reinterpret_cast<Iterator*>(handle);
+    return iterator->hasPrev() ? 1 : 0;
+}
+
+extern "C" int iterator_prev(void* handle, char* dest, int dest_len) {
+    auto* iterator = reinterpret_cast<Iterator*>(handle);
+    try {
+        const auto& data = iterator->prev();
+        const int size = std::min(static_cast<int>(data.size()), dest_len);
+        std::memcpy(dest, data.data(), static_cast<size_t>(size));
+        return size;
+    } catch (const std::out_of_range&) {
+        return -1;
+    }
+}
+
+extern "C" void iterator_seek(void* handle, int index) {
+    auto* iterator = reinterpret_cast<Iterator*>(handle);
+    iterator->seek(index);
+}
+
+extern "C" void iterator_seek_for_prev(void* handle, int index) {
+    auto* iterator = reinterpret_cast<Iterator*>(handle);
+    iterator->seekForPrev(index);
+}
+
+extern "C" void iterator_set_upper_bound(void* handle, int upper_bound) {
+    auto* iterator = reinterpret_cast<Iterator*>(handle);
+    iterator->setUpperBound(upper_bound);
+}
+
+extern "C" int iterator_next_batch(void* handle, char* dest, int dest_len, int* lengths, int max_count) {
+    auto* iterator = reinterpret_cast<Iterator*>(handle);
+    return FillBatch(iterator, dest, static_cast<size_t>(dest_len), lengths, max_count);
+}
+
+extern "C" long long iterator_export_snapshot(void* handle, const char* path) {
+    auto* iterator = reinterpret_cast<Iterator*>(handle);
+    try {
+        return iterator->exportSnapshot(path);
+    } catch (const std::runtime_error&) {
+        return -1;
+    }
+}
+
 extern "C" void iterator_dispose(void* handle) {
     auto* iterator = reinterpret_cast<Iterator*>(handle);
     delete iterator;
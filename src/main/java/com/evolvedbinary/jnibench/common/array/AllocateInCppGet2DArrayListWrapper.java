@@ -27,348 +27,257 @@
 package com.evolvedbinary.jnibench.common.array;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
 public class AllocateInCppGet2DArrayListWrapper extends AllocateInCppGet2DArray {
 
+  private final boolean hashIndexed;
+
+  public AllocateInCppGet2DArrayListWrapper() {
+    this(false);
+  }
+
+  /**
+   * @param hashIndexed true if the returned lists should answer contains, indexOf and lastIndexOf
+   *     from a hash index, built on the first such call, rather than by a linear scan
+   */
+  public AllocateInCppGet2DArrayListWrapper(final boolean hashIndexed) {
+    this.hashIndexed = hashIndexed;
+  }
+
   @Override
   public List<FooObject> getObjectList(final NativeObjectArray<FooObject> nativeObjectArray) {
     final Object[][] objArr = get2DArray(nativeObjectArray.get_nativeHandle());
-    return new FooObjectList(objArr);
+    return new FooObjectList(objArr, hashIndexed);
   }
 
-  public static class FooObjectList implements List<FooObject> {
+  /**
+   * An immutable list over the columns of the 2D array, {names, values}, which
+   * only instantiates the FooObject for an element when it is first got.
+   * It may be read from many threads, as by a parallel stream: its caches are published safely,
+   * and each element is still only instantiated once.
+   */
+  public static class FooObjectList extends AbstractList<FooObject> implements RandomAccess {
 
-    private final Object[][] backingObjects;
+    private final String[] names;
+    private final Long[] values;
+    private final boolean hashIndexed;
 
     /**
      * Cache so that we only instantiate 1 FooObject
-     * for each object representation in the backingObjects
+     * for each object representation in the backing columns
      */
-    private FooObject[] cachedObjects;
+    private volatile AtomicReferenceArray<FooObject> cachedObjects;
 
-    private FooObjectList(final Object[][] backingObjects) {
-      this.backingObjects = backingObjects;
+    /**
+     * Open addressing hash table of (index + 1) of each element, or 0 for an empty slot.
+     * Equal elements share a probe sequence, along which they are in index order.
+     */
+    private volatile int[] hashIndex;
+
+    private FooObjectList(final Object[][] backingObjects, final boolean hashIndexed) {
+      this.names = (String[]) backingObjects[0];
+      this.values = (Long[]) backingObjects[1];
+      this.hashIndexed = hashIndexed;
     }
 
     @Override
     public int size() {
-      return backingObjects.length;
+      return names.length;
     }
 
     @Override
     public boolean isEmpty() {
-      return backingObjects.length == 0;
+      return names.length == 0;
     }
 
     @Override
-    public boolean contains(final Object o) {
-      if (o == null || !(o instanceof FooObject)) {
-        return false;
-      }
-
-      final FooObject other = (FooObject)o;
-
-      // first, search any cachedObjects
-      int lastCachedIdx = -1;
-      if (cachedObjects != null) {
-        for (int i = 0; i < cachedObjects.length; i++) {
-          final FooObject cachedObject = cachedObjects[i];
-          if (cachedObject == null) {
-            break;
-          }
-
-          if (cachedObject.equals(other)) {
-            return true;
-          }
-
-          lastCachedIdx = i;
-        }
+    public FooObject get(final int index) {
+      AtomicReferenceArray<FooObject> cache = cachedObjects;
+      if (cache == null) {
+        cache = createCache();
       }
 
-      // second, search any uncached objects after the cached objects
-      for (int i = lastCachedIdx + 1; i < backingObjects.length; i++) {
-        if (((String)backingObjects[i][0]).equals(other.name)
-                && ((long)backingObjects[i][1]) == other.value) {
-          return true;
+      FooObject object = cache.get(index);
+      if (object == null) {
+        object = new FooObject(name(index), value(index));
+        if (!cache.compareAndSet(index, null, object)) {
+          // another thread got it first
+          object = cache.get(index);
         }
       }
-
-      return false;
-    }
-
-    @Override
-    public Iterator<FooObject> iterator() {
-      return listIterator();
-    }
-
-    @Override
-    public Object[] toArray() {
-      final FooObject[] array = new FooObject[backingObjects.length];
-      return toArray(array);
-    }
-
-    @Override
-    public <T> T[] toArray(final T[] a) {
-      final FooObject[] array;
-      if (a.length < backingObjects.length) {
-        array = new FooObject[backingObjects.length];
-      } else {
-        array = (FooObject[]) a;
-      }
-
-      // first, process any cachedObjects
-      int lastCachedIdx = -1;
-      if (cachedObjects != null) {
-        for (int i = 0; i < cachedObjects.length; i++) {
-          final FooObject cachedObject = cachedObjects[i];
-          if (cachedObject == null) {
-            break;
-          }
-
-          array[i] = cachedObject;
-
-          lastCachedIdx = i;
-        }
-      }
-
-      // second, process any uncached objects after the cached objects
-      for (int i = lastCachedIdx + 1; i < backingObjects.length; i++) {
-        array[i] = getOrCreateFooObject(i);
-      }
-
-      return (T[])array;
-    }
-
-    private FooObject getOrCreateFooObject(final int index) {
-      if (cachedObjects == null) {
-        cachedObjects = new FooObject[backingObjects.length];
-      }
-
-      FooObject object = cachedObjects[index];
-      if (object != null) {
-        return object;
-      }
-
-      object = new FooObject((String)backingObjects[index][0], (long)backingObjects[index][1]);
-
-      cachedObjects[index] = object;
-
       return object;
     }
 
-    @Override
-    public boolean add(final FooObject fooObject) {
-      throw new UnsupportedOperationException("List is immutable");
-    }
-
-    @Override
-    public boolean remove(final Object o) {
-      throw new UnsupportedOperationException("List is immutable");
-    }
-
-    @Override
-    public boolean containsAll(final Collection<?> other) {
-      for (final Object o : other) {
-        if (!contains(o)) {
-          return false;
-        }
+    private synchronized AtomicReferenceArray<FooObject> createCache() {
+      if (cachedObjects == null) {
+        cachedObjects = new AtomicReferenceArray<>(names.length);
       }
-      return true;
-    }
-
-    @Override
-    public boolean addAll(final Collection<? extends FooObject> c) {
-      throw new UnsupportedOperationException("List is immutable");
+      return cachedObjects;
     }
 
     @Override
-    public boolean addAll(final int index, final Collection<? extends FooObject> c) {
-      throw new UnsupportedOperationException("List is immutable");
-    }
-
-    @Override
-    public boolean removeAll(final Collection<?> c) {
-      throw new UnsupportedOperationException("List is immutable");
-    }
-
-    @Override
-    public boolean retainAll(final Collection<?> c) {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public void clear() {
-      throw new UnsupportedOperationException("List is immutable");
-    }
-
-    @Override
-    public FooObject get(final int index) {
-      return getOrCreateFooObject(index);
-    }
-
-    @Override
-    public FooObject set(final int index, final FooObject element) {
-      throw new UnsupportedOperationException("List is immutable");
-    }
-
-    @Override
-    public void add(final int index, final FooObject element) {
-      throw new UnsupportedOperationException("List is immutable");
-    }
-
-    @Override
-    public FooObject remove(final int index) {
-      throw new UnsupportedOperationException("List is immutable");
+    public boolean contains(final Object o) {
+      return indexOf(o) >= 0;
     }
 
     @Override
     public int indexOf(final Object o) {
-      if (o == null || !(o instanceof FooObject)) {
+      if (!(o instanceof FooObject)) {
         return -1;
       }
-
-      final FooObject other = (FooObject)o;
-
-      // first, search any cachedObjects
-      int lastCachedIdx = -1;
-      if (cachedObjects != null) {
-        for (int i = 0; i < cachedObjects.length; i++) {
-          final FooObject cachedObject = cachedObjects[i];
-          if (cachedObject == null) {
-            break;
-          }
-
-          if (cachedObject.equals(other)) {
+      final FooObject other = (FooObject) o;
+
+      if (hashIndexed) {
+        final int[] table = hashIndex();
+        final int mask = table.length - 1;
+        for (int slot = other.hashCode() & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+          final int i = table[slot] - 1;
+          if (matches(i, other)) {
             return i;
           }
-
-          lastCachedIdx = i;
         }
+        return -1;
       }
 
-      // second, search any uncached objects after the cached objects
-      for (int i = lastCachedIdx + 1; i < backingObjects.length; i++) {
-        if (((String)backingObjects[i][0]).equals(other.name)
-                && ((long)backingObjects[i][1]) == other.value) {
+      for (int i = 0; i < names.length; i++) {
+        if (matches(i, other)) {
           return i;
         }
       }
-
       return -1;
     }
 
     @Override
     public int lastIndexOf(final Object o) {
-      if (o == null || !(o instanceof FooObject)) {
+      if (!(o instanceof FooObject)) {
         return -1;
       }
-
-      final FooObject other = (FooObject)o;
-
-      // first, search any cachedObjects
-      int cachedIdx = -1;
-      if (cachedObjects != null) {
-        for (int i = cachedObjects.length - 1; i >= 0; i--) {
-          final FooObject cachedObject = cachedObjects[i];
-          if (cachedObject == null) {
-            continue;
-          }
-
-          if (cachedObject.equals(other)) {
-            cachedIdx = i;
-            break;
+      final FooObject other = (FooObject) o;
+
+      if (hashIndexed) {
+        final int[] table = hashIndex();
+        final int mask = table.length - 1;
+        int last = -1;
+        for (int slot = other.hashCode() & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+          final int i = table[slot] - 1;
+          if (matches(i, other)) {
+            last = i;
           }
         }
+        return last;
       }
 
-      // second, search any uncached objects after the cached objects
-      for (int i = backingObjects.length - 1; i >= 0; i--) {
-        if (cachedIdx > i) {
-          return cachedIdx;
-        }
-
-        if (((String)backingObjects[i][0]).equals(other.name)
-                && ((long)backingObjects[i][1]) == other.value) {
+      for (int i = names.length - 1; i >= 0; i--) {
+        if (matches(i, other)) {
           return i;
         }
       }
-
       return -1;
     }
 
     @Override
-    public ListIterator<FooObject> listIterator() {
-      return listIterator(0);
+    public Object[] toArray() {
+      final Object[] array = new Object[names.length];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = get(i);
+      }
+      return array;
     }
 
     @Override
-    public ListIterator<FooObject> listIterator(final int firstOffset) {
-      return new ListIterator<FooObject>() {
-        private int offset = firstOffset;
+    public Spliterator<FooObject> spliterator() {
+      return new FooObjectSpliterator(0, names.length);
+    }
 
-        @Override
-        public boolean hasNext() {
-          return offset < backingObjects.length;
-        }
+    private String name(final int index) {
+      return names[index];
+    }
 
-        @Override
-        public FooObject next() {
-          if (offset >= backingObjects.length) {
-            throw new NoSuchElementException();
-          }
-          return getOrCreateFooObject(offset++);
-        }
+    private long value(final int index) {
+      return values[index];
+    }
 
-        @Override
-        public boolean hasPrevious() {
-          return offset > 0 && backingObjects.length > 0;
-        }
+    /**
+     * Compare an element with other without instantiating its FooObject.
+     */
+    private boolean matches(final int index, final FooObject other) {
+      return value(index) == other.value && name(index).equals(other.name);
+    }
 
-        @Override
-        public FooObject previous() {
-          if (offset <= 0 || backingObjects.length == 0) {
-            throw new NoSuchElementException();
+    private int[] hashIndex() {
+      // threads which race to build it build the same table
+      int[] hashIndex = this.hashIndex;
+      if (hashIndex == null) {
+        // a power of two of at least twice the size, so that probe sequences stay short
+        final int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 2 - 1) << 1;
+        final int[] table = new int[capacity];
+        final int mask = capacity - 1;
+        for (int i = 0; i < names.length; i++) {
+          int slot = hashCode(name(i), value(i)) & mask;
+          while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
           }
-          return getOrCreateFooObject(offset--);
+          table[slot] = i + 1;
         }
+        this.hashIndex = hashIndex = table;
+      }
+      return hashIndex;
+    }
 
-        @Override
-        public int nextIndex() {
-          if (offset < backingObjects.length) {
-            return offset + 1;
-          }
-          return backingObjects.length;
-        }
+    /**
+     * The same as {@link FooObject#hashCode()}.
+     */
+    private static int hashCode(final String name, final long value) {
+      return 31 * name.hashCode() + (int) (value ^ (value >>> 32));
+    }
 
-        @Override
-        public int previousIndex() {
-          if (offset == 0 || backingObjects.length == 0) {
-            return -1;
-          }
+    private final class FooObjectSpliterator implements Spliterator<FooObject> {
+      private int index;
+      private final int fence;
 
-          return offset - 1;
-        }
+      private FooObjectSpliterator(final int index, final int fence) {
+        this.index = index;
+        this.fence = fence;
+      }
 
-        @Override
-        public void remove() {
-          throw new UnsupportedOperationException("List is immutable");
+      @Override
+      public boolean tryAdvance(final Consumer<? super FooObject> action) {
+        if (index >= fence) {
+          return false;
         }
+        action.accept(get(index++));
+        return true;
+      }
 
-        @Override
-        public void set(final FooObject fooObject) {
-          throw new UnsupportedOperationException("List is immutable");
+      @Override
+      public void forEachRemaining(final Consumer<? super FooObject> action) {
+        while (index < fence) {
+          action.accept(get(index++));
         }
+      }
 
-        @Override
-        public void add(final FooObject fooObject) {
-          throw new UnsupportedOperationException("List is immutable");
+      @Override
+      public Spliterator<FooObject> trySplit() {
+        final int mid = (index + fence) >>> 1;
+        if (mid <= index) {
+          return null;
         }
-      };
-    }
+        final FooObjectSpliterator prefix = new FooObjectSpliterator(index, mid);
+        index = mid;
+        return prefix;
+      }
 
-    @Override
-    public List<FooObject> subList(final int fromIndex, final int toIndex) {
-      throw new UnsupportedOperationException();
+      @Override
+      public long estimateSize() {
+        return fence - index;
+      }
+
+      @Override
+      public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+      }
     }
   }
 }
@@ -0,0 +1,91 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.array;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Transfers the array in columns, a long[] of values, a byte[] of the concatenated (modified) UTF-8 names,
+ * and an int[] of offsets into it, which are allocated and filled in a single native call,
+ * rather than constructing an object per element.
+ */
+public class AllocateInCppGetColumnar implements JniListSupplier<FooObject> {
+
+  @Override
+  public List<FooObject> getObjectList(final NativeObjectArray<FooObject> nativeObjectArray) {
+    return getColumns(nativeObjectArray.get_nativeHandle());
+  }
+
+  static native FooObjectColumns getColumns(final long handle);
+
+  /**
+   * A read-only view of the columns, which decodes a FooObject each time one is got.
+   */
+  public static class FooObjectColumns extends AbstractList<FooObject> implements RandomAccess {
+
+    final long[] values;
+    final byte[] names;
+    /**
+     * The name of element i is names[nameOffsets[i] .. nameOffsets[i + 1]).
+     */
+    final int[] nameOffsets;
+
+    // called from native code
+    FooObjectColumns(final long[] values, final byte[] names, final int[] nameOffsets) {
+      this.values = values;
+      this.names = names;
+      this.nameOffsets = nameOffsets;
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public FooObject get(final int index) {
+      return new FooObject(getName(index), getValue(index));
+    }
+
+    /**
+     * Decode just the name of an element, without a FooObject.
+     */
+    public String getName(final int index) {
+      final int offset = nameOffsets[index];
+      return ModifiedUtf8.decode(names, offset, nameOffsets[index + 1] - offset);
+    }
+
+    /**
+     * Get just the value of an element, without a FooObject.
+     */
+    public long getValue(final int index) {
+      return values[index];
+    }
+  }
+}
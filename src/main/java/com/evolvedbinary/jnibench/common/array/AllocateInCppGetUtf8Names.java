@@ -0,0 +1,55 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.array;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transfers the array as {@link AllocateInCppGetColumnar} does, in a single native call
+ * and without constructing a String per element, and then builds a {@link FooUtf8Object}
+ * per element whose name is a slice of the shared byte[] of names.
+ *
+ * As the elements are not FooObjects this is not a {@link JniListSupplier}.
+ */
+public class AllocateInCppGetUtf8Names {
+
+  public List<FooUtf8Object> getObjectList(final NativeObjectArray<FooObject> nativeObjectArray) {
+    final AllocateInCppGetColumnar.FooObjectColumns columns =
+        AllocateInCppGetColumnar.getColumns(nativeObjectArray.get_nativeHandle());
+    final long[] values = columns.values;
+    final byte[] names = columns.names;
+    final int[] nameOffsets = columns.nameOffsets;
+
+    final FooUtf8Object[] objects = new FooUtf8Object[values.length];
+    for (int i = 0; i < objects.length; i++) {
+      final int offset = nameOffsets[i];
+      objects[i] = new FooUtf8Object(new Utf8CharSequence(names, offset, nameOffsets[i + 1] - offset), values[i]);
+    }
+    return Arrays.asList(objects);
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.array;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Fetches the array in windows of chunkSize elements, each overwriting the same pool of
+ * chunkSize mutable {@link FooObject}s, so that however large the array is, only one
+ * window of it is materialized on the Java heap at a time.
+ */
+public class AllocateInJavaGetChunkedArray implements JniListSupplier<FooObject> {
+
+  public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+  private final FooObject[] pool;
+
+  public AllocateInJavaGetChunkedArray() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  public AllocateInJavaGetChunkedArray(final int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    this.pool = new FooObject[chunkSize];
+    for (int i = 0; i < chunkSize; i++) {
+      pool[i] = new FooObject();
+    }
+  }
+
+  public int getChunkSize() {
+    return pool.length;
+  }
+
+  /**
+   * Get a list over the whole array, of which only the window holding the most recently
+   * got element is fetched. Getting an element outside of that window fetches the window
+   * holding it, which overwrites the elements got before, so the list should be read in
+   * order and its elements not kept. The first window is fetched before this returns.
+   *
+   * Only one list from this supplier may be read at a time, as they share the pool.
+   */
+  @Override
+  public List<FooObject> getObjectList(final NativeObjectArray<FooObject> nativeObjectArray) {
+    final long handle = nativeObjectArray.get_nativeHandle();
+    return new ChunkedList(handle, (int) getArraySize(handle));
+  }
+
+  /**
+   * Fetch the window of up to chunkSize elements starting at from into the pool.
+   *
+   * @return the number of elements fetched, 0 if from is the end of the array
+   * @throws IndexOutOfBoundsException if from is negative or after the end of the array
+   */
+  public int getChunk(final NativeObjectArray<FooObject> nativeObjectArray, final int from) {
+    final long handle = nativeObjectArray.get_nativeHandle();
+    final int size = (int) getArraySize(handle);
+    if (from < 0 || from > size) {
+      throw new IndexOutOfBoundsException("From: " + from + ", Size: " + size);
+    }
+    return fetch(handle, from, Math.min(pool.length, size - from));
+  }
+
+  /**
+   * Get an element fetched by the last {@link #getChunk(NativeObjectArray, int)}.
+   *
+   * @param index the index of the element within the chunk
+   */
+  public FooObject get(final int index) {
+    return pool[index];
+  }
+
+  private int fetch(final long handle, final int from, final int len) {
+    if (len > 0) {
+      getChunk(handle, from, pool, len);
+    }
+    return len;
+  }
+
+  private final class ChunkedList extends AbstractList<FooObject> {
+    private final long handle;
+    private final int size;
+    // the window [chunkStart, chunkEnd) currently in the pool
+    private int chunkStart;
+    private int chunkEnd;
+
+    private ChunkedList(final long handle, final int size) {
+      this.handle = handle;
+      this.size = size;
+      fetchWindow(0);
+    }
+
+    @Override
+    public FooObject get(final int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      if (index < chunkStart || index >= chunkEnd) {
+        fetchWindow(index - index % pool.length);
+      }
+      return pool[index - chunkStart];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    private void fetchWindow(final int from) {
+      chunkStart = from;
+      chunkEnd = from + fetch(handle, from, Math.min(pool.length, size - from));
+    }
+  }
+
+  private static native long getArraySize(final long handle);
+
+  private static native void getChunk(final long handle, final int from, final FooObject[] pool, final int len);
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.array;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Like {@link AllocateInJavaGetMutableArray}, but the mutable {@link FooObject}s are
+ * kept in a pool which is only grown, never reallocated, between calls. The native
+ * code overwrites the pooled objects in place, and keeps the existing name string
+ * of an object when its bytes are unchanged.
+ *
+ * The list returned by {@link #getObjectList(NativeObjectArray)} is a view of the pool,
+ * so it, and the objects in it, are only valid until the next call.
+ */
+public class AllocateInJavaGetPooledArray implements JniListSupplier<FooObject> {
+
+  private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+  private FooObject[] pool = new FooObject[0];
+  private final PooledList view = new PooledList();
+
+  public AllocateInJavaGetPooledArray() {
+    this(DEFAULT_INITIAL_CAPACITY);
+  }
+
+  public AllocateInJavaGetPooledArray(final int initialCapacity) {
+    ensureCapacity(initialCapacity);
+  }
+
+  @Override
+  public List<FooObject> getObjectList(final NativeObjectArray<FooObject> nativeObjectArray) {
+    final int len = (int) getArraySize(nativeObjectArray.get_nativeHandle());
+    ensureCapacity(len);
+    getArray(nativeObjectArray.get_nativeHandle(), pool, len);
+    view.size = len;
+    return view;
+  }
+
+  private void ensureCapacity(final int capacity) {
+    if (capacity <= pool.length) {
+      return;
+    }
+
+    final FooObject[] grown = new FooObject[Math.max(capacity, pool.length * 2)];
+    System.arraycopy(pool, 0, grown, 0, pool.length);
+    for (int i = pool.length; i < grown.length; i++) {
+      grown[i] = new FooObject();
+    }
+    pool = grown;
+  }
+
+  private final class PooledList extends AbstractList<FooObject> implements RandomAccess {
+    private int size;
+
+    @Override
+    public FooObject get(final int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return pool[index];
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private static native long getArraySize(final long handle);
+
+  private static native void getArray(final long handle, final FooObject[] pool, final int len);
+}
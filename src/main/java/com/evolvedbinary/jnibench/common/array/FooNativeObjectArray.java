@@ -26,12 +26,72 @@
  */
 package com.evolvedbinary.jnibench.common.array;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class FooNativeObjectArray extends NativeObjectArray<FooObject> {
 
+  /**
+   * The fewest elements copied by a single task of {@link #parallel(FooObject[], ForkJoinPool)}.
+   */
+  private static final int MIN_SLICE = 1024;
+
   public FooNativeObjectArray(final FooObject[] fooObjects) {
     super(fooObjects);
   }
 
+  private FooNativeObjectArray(final long nativeHandle) {
+    super(nativeHandle);
+  }
+
+  /**
+   * Create the native array with the tasks of pool, each of which copies a disjoint
+   * slice of fooObjects into the pre-sized native array with its own JNI call.
+   */
+  public static FooNativeObjectArray parallel(final FooObject[] fooObjects, final ForkJoinPool pool) {
+    final FooNativeObjectArray array = new FooNativeObjectArray(newSizedFooObjectArray(fooObjects.length));
+    // a few slices per worker, so that a slow worker can be balanced by the others stealing
+    final int sliceSize = Math.max(MIN_SLICE, fooObjects.length / (pool.getParallelism() * 4));
+    try {
+      pool.invoke(new SetSliceTask(array._nativeHandle, fooObjects, 0, fooObjects.length, sliceSize));
+    } catch (final RuntimeException | Error e) {
+      array.close();
+      throw e;
+    }
+    return array;
+  }
+
+  private static final class SetSliceTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final long handle;
+    // the task is never serialized
+    private final transient FooObject[] fooObjects;
+    private final int from;
+    private final int to;
+    private final int sliceSize;
+
+    private SetSliceTask(final long handle, final FooObject[] fooObjects, final int from, final int to,
+        final int sliceSize) {
+      this.handle = handle;
+      this.fooObjects = fooObjects;
+      this.from = from;
+      this.to = to;
+      this.sliceSize = sliceSize;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= sliceSize) {
+        setFooObjects(handle, fooObjects, from, to);
+      } else {
+        final int mid = (from + to) >>> 1;
+        invokeAll(new SetSliceTask(handle, fooObjects, from, mid, sliceSize),
+            new SetSliceTask(handle, fooObjects, mid, to, sliceSize));
+      }
+    }
+  }
+
   @Override
   protected long newObjectArray(final FooObject[] objectArray) {
     return newFooObjectArray(objectArray);
@@ -44,5 +104,9 @@ public class FooNativeObjectArray extends NativeObjectArray<FooObject> {
 
   private static native long newFooObjectArray(final Object[] fooObjects);
 
+  private static native long newSizedFooObjectArray(final int size);
+
+  private static native void setFooObjects(final long handle, final Object[] fooObjects, final int from, final int to);
+
   private native void disposeInternal(final long handle);
 }
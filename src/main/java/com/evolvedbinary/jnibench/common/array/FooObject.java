@@ -38,6 +38,14 @@ public class FooObject {
     this.value = value;
   }
 
+  public String getName() {
+    return name;
+  }
+
+  public long getValue() {
+    return value;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
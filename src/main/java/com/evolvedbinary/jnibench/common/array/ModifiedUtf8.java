@@ -0,0 +1,75 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.array;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes the names held natively, which are in the modified UTF-8 of JNI's GetStringUTFChars
+ * rather than standard UTF-8: NUL is the two bytes 0xC0 0x80, and a supplementary character
+ * is its two surrogates, each encoded in three bytes.
+ */
+final class ModifiedUtf8 {
+
+  private ModifiedUtf8() {
+  }
+
+  static String decode(final byte[] bytes, final int offset, final int length) {
+    final int end = offset + length;
+    int i = offset;
+    while (i < end && bytes[i] > 0) {
+      i++;
+    }
+    if (i == end) {
+      // all ASCII, which is the same in both encodings
+      return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    final char[] chars = new char[length];
+    int count = 0;
+    for (int j = offset; j < i; j++) {
+      chars[count++] = (char) bytes[j];
+    }
+    while (i < end) {
+      final int b = bytes[i] & 0xff;
+      if (b < 0x80 && b != 0) {
+        chars[count++] = (char) b;
+        i++;
+      } else if ((b & 0xe0) == 0xc0 && i + 1 < end && (bytes[i + 1] & 0xc0) == 0x80) {
+        chars[count++] = (char) (((b & 0x1f) << 6) | (bytes[i + 1] & 0x3f));
+        i += 2;
+      } else if ((b & 0xf0) == 0xe0 && i + 2 < end && (bytes[i + 1] & 0xc0) == 0x80
+          && (bytes[i + 2] & 0xc0) == 0x80) {
+        chars[count++] = (char) (((b & 0x0f) << 12) | ((bytes[i + 1] & 0x3f) << 6) | (bytes[i + 2] & 0x3f));
+        i += 3;
+      } else {
+        throw new IllegalArgumentException("Malformed modified UTF-8 at byte " + (i - offset));
+      }
+    }
+    return new String(chars, 0, count);
+  }
+}
@@ -33,5 +33,9 @@ public abstract class NativeObjectArray<T> extends NativeBackedObject {
     _nativeHandle = newObjectArray(objects);
   }
 
+  NativeObjectArray(final long nativeHandle) {
+    _nativeHandle = nativeHandle;
+  }
+
   protected abstract long newObjectArray(final T[] objectArray);
 }
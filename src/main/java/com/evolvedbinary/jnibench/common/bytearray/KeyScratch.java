@@ -0,0 +1,71 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.bytearray;
+
+import com.evolvedbinary.jnibench.common.NativeBackedObject;
+
+/**
+ * A native buffer in which the keys passed by a thread are staged,
+ * so that {@link GetByteArray} and {@link com.evolvedbinary.jnibench.common.getputjni.GetPutJNI}
+ * do not have to allocate native memory for every key.
+ *
+ * A thread only uses the buffer once it has been registered by that thread.
+ * Keys longer than the capacity of the buffer are still staged in newly allocated memory.
+ */
+public class KeyScratch extends NativeBackedObject {
+
+    public KeyScratch(final int capacity) {
+        _nativeHandle = create(capacity);
+    }
+
+    /**
+     * Stage the keys of the calling thread in this buffer.
+     */
+    public void register() {
+        register(_nativeHandle);
+    }
+
+    /**
+     * Stop staging the keys of the calling thread in this buffer.
+     */
+    public void unregister() {
+        unregister(_nativeHandle);
+    }
+
+    /**
+     * Must be called from the thread which registered the buffer.
+     */
+    @Override
+    protected void disposeInternal() {
+        disposeInternal(_nativeHandle);
+    }
+
+    private static native long create(final int capacity);
+    private static native void register(final long handle);
+    private static native void unregister(final long handle);
+    private static native void disposeInternal(final long handle);
+}
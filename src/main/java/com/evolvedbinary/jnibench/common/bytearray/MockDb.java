@@ -0,0 +1,144 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.bytearray;
+
+import com.evolvedbinary.jnibench.consbench.NarSystem;
+
+/**
+ * Adds keys to the native mock db which {@link GetByteArray} and
+ * {@link com.evolvedbinary.jnibench.common.getputjni.GetPutJNI} read from,
+ * alongside the fixed values it always holds.
+ *
+ * The keys are held in a compact native arena with an open addressing index,
+ * so that a keyspace of millions of keys can be generated with {@link #populate}.
+ * Not thread-safe, populate the db before reading from it.
+ * The db cannot be changed while a {@link com.evolvedbinary.jnibench.common.getputjni.PinnedValue} is pinned,
+ * as its view aliases a value; put, populate and clear then throw IllegalStateException.
+ */
+public class MockDb {
+
+    static {
+        // the db is populated from benchmark state setup, which can run before the benchmark loads the library
+        NarSystem.loadLibrary();
+    }
+
+    /**
+     * Add (or replace) a value of valueSize bytes for the key.
+     */
+    public static void put(final byte[] key, final int valueSize) {
+        putInternal(key, 0, key.length, valueSize);
+    }
+
+    /**
+     * Replace the keys in the db with a generated keyspace of numKeys keys,
+     * drawing the length of each key and the size of its value from the given size distributions.
+     * The key of index i is {@link #key(int, int)}, and each key has a value of its own.
+     *
+     * @param numKeys the number of keys to generate
+     * @param keySizes the key lengths to draw from, each at least 4
+     * @param keyWeights the weight of each key length
+     * @param valueSizes the value sizes to draw from
+     * @param valueWeights the weight of each value size
+     * @param seed the seed, so that the keyspace can be repeated
+     */
+    public static void populate(final int numKeys, final int[] keySizes, final int[] keyWeights,
+                                final int[] valueSizes, final int[] valueWeights, final long seed) {
+        checkDistribution(keySizes, keyWeights);
+        checkDistribution(valueSizes, valueWeights);
+        for (final int keySize : keySizes) {
+            if (keySize < Integer.BYTES) {
+                throw new IllegalArgumentException("Keys must be at least " + Integer.BYTES + " bytes long, but "
+                        + keySize + " was given");
+            }
+        }
+        populateInternal(numKeys, keySizes, keyWeights, valueSizes, valueWeights, seed);
+    }
+
+    private static void checkDistribution(final int[] sizes, final int[] weights) {
+        if (sizes.length == 0 || sizes.length != weights.length) {
+            throw new IllegalArgumentException("Expected a weight for each of one or more sizes");
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] <= 0 || weights[i] <= 0) {
+                throw new IllegalArgumentException("Sizes and weights must be positive");
+            }
+        }
+    }
+
+    /**
+     * The key of index in a keyspace generated by {@link #populate}:
+     * the index in big-endian order in the first 4 bytes, so that every key is distinct, padded with 'k'.
+     */
+    public static byte[] key(final int index, final int keyLength) {
+        final byte[] key = new byte[keyLength];
+        for (int i = 0; i < Integer.BYTES; i++) {
+            key[i] = (byte) (index >>> (8 * (Integer.BYTES - 1 - i)));
+        }
+        for (int i = Integer.BYTES; i < keyLength; i++) {
+            key[i] = 'k';
+        }
+        return key;
+    }
+
+    /**
+     * Look up the length of the key and the size of the value of the keys of the given indices.
+     */
+    public static void describe(final int[] indices, final int[] keyLengths, final int[] valueSizes) {
+        final int size = sizeInternal();
+        for (final int index : indices) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+        }
+        if (keyLengths.length < indices.length || valueSizes.length < indices.length) {
+            throw new IllegalArgumentException("Expected room for a length and a size for each index");
+        }
+        describeInternal(indices, keyLengths, valueSizes);
+    }
+
+    /**
+     * @return the number of keys which have been added
+     */
+    public static int size() {
+        return sizeInternal();
+    }
+
+    /**
+     * Remove all of the keys which have been added.
+     */
+    public static void clear() {
+        clearInternal();
+    }
+
+    private static native void putInternal(final byte[] key, final int keyOffset, final int keyLength,
+                                           final int valueSize);
+    private static native void populateInternal(final int numKeys, final int[] keySizes, final int[] keyWeights,
+                                                final int[] valueSizes, final int[] valueWeights, final long seed);
+    private static native void describeInternal(final int[] indices, final int[] keyLengths, final int[] valueSizes);
+    private static native int sizeInternal();
+    private static native void clearInternal();
+}
@@ -148,4 +148,86 @@ public class GetPutJNI {
             final int keyLength,
             final byte[] value,
             final int valueLength);
+
+    /**
+     * Get the values of many keys with a single JNI call.
+     * Values are written one after another into {@code values}, each in a slot
+     * of {@code valueLengths[i]} bytes.
+     *
+     * @param keys the keys to get
+     * @param keyOffsets the offset of each key within its array
+     * @param keyLengths the length of each key
+     * @param values a direct buffer with room for all of the value slots
+     * @param valueLengths on entry the size of each value slot,
+     *     on return the number of bytes written into each slot
+     * @return the number of values retrieved, or -1 on error
+     */
+    public static native int multiGetIntoDirectByteBuffer(
+            final byte[][] keys,
+            final int[] keyOffsets,
+            final int[] keyLengths,
+            final ByteBuffer values,
+            final int[] valueLengths);
+
+    /**
+     * Same as {@link #multiGetIntoDirectByteBuffer(byte[][], int[], int[], ByteBuffer, int[])}
+     * but the values are written into memory allocated by {@link sun.misc.Unsafe}.
+     *
+     * @param keys the keys to get
+     * @param keyOffsets the offset of each key within its array
+     * @param keyLengths the length of each key
+     * @param valuesHandle address of memory with room for all of the value slots
+     * @param valueLengths on entry the size of each value slot,
+     *     on return the number of bytes written into each slot
+     * @return the number of values retrieved, or -1 on error
+     */
+    public static native int multiGetIntoUnsafe(
+            final byte[][] keys,
+            final int[] keyOffsets,
+            final int[] keyLengths,
+            final long valuesHandle,
+            final int[] valueLengths);
+
+    /**
+     * Put all of the records of a {@link WriteBatch} with a single JNI call.
+     *
+     * @param batch a direct buffer holding the length-prefixed records of the batch
+     * @param batchLength the number of bytes of batch in use
+     * @return the number of records put, or -1 on error
+     */
+    public static native int putBatchFromDirectByteBuffer(
+            final ByteBuffer batch,
+            final int batchLength);
+
+    /**
+     * Get a value without copying it, by pinning it in native memory.
+     *
+     * @param key the key to get
+     * @param keyOffset the offset of the key within its array
+     * @param keyLength the length of the key
+     * @return the pinned value, which must be released once it has been read
+     */
+    public static PinnedValue getPinned(
+            final byte[] key,
+            final int keyOffset,
+            final int keyLength) {
+        return new PinnedValue(key, keyOffset, keyLength);
+    }
+
+    /**
+     * Get a value without copying it, by pinning it in native memory with a reused {@link PinnedValue}.
+     *
+     * @param pinnedValue the pinned value to reuse, which releases the value it had pinned
+     * @param key the key to get
+     * @param keyOffset the offset of the key within its array
+     * @param keyLength the length of the key
+     * @return a read-only view of the value, valid until pinnedValue is released
+     */
+    public static ByteBuffer getPinned(
+            final PinnedValue pinnedValue,
+            final byte[] key,
+            final int keyOffset,
+            final int keyLength) {
+        return pinnedValue.pin(key, keyOffset, keyLength);
+    }
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.getputjni;
+
+import com.evolvedbinary.jnibench.common.NativeBackedObject;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A value which is pinned in native memory, so that it
+ * can be read in place rather than copied out.
+ *
+ * The value must be released once it has been read;
+ * its view is not valid after that. While any value is pinned the
+ * {@link com.evolvedbinary.jnibench.common.bytearray.MockDb} cannot be changed.
+ * Once released, a PinnedValue can pin another value, so that one can be reused for many gets.
+ */
+public class PinnedValue extends NativeBackedObject {
+
+    private ByteBuffer value;
+
+    public PinnedValue() {
+    }
+
+    public PinnedValue(final byte[] key, final int keyOffset, final int keyLength) {
+        pin(key, keyOffset, keyLength);
+    }
+
+    /**
+     * Pin the value of a key, releasing the value pinned before, if any.
+     *
+     * @return a read-only direct buffer which aliases the native value
+     */
+    public ByteBuffer pin(final byte[] key, final int keyOffset, final int keyLength) {
+        release();
+        // pins the value, sets _nativeHandle and creates the view, in a single call
+        value = pinInternal(key, keyOffset, keyLength).asReadOnlyBuffer();
+        return value;
+    }
+
+    /**
+     * Get a view of the pinned value.
+     *
+     * @return a read-only direct buffer which aliases the native value
+     */
+    public ByteBuffer value() {
+        return value;
+    }
+
+    /**
+     * Unpin the value, if one is pinned.
+     */
+    public void release() {
+        if (_nativeHandle != 0) {
+            disposeInternal();
+            _nativeHandle = 0;
+            value = null;
+        }
+    }
+
+    @Override
+    protected void disposeInternal() {
+        disposeInternal(_nativeHandle);
+    }
+
+    private native ByteBuffer pinInternal(final byte[] key, final int keyOffset, final int keyLength);
+    private static native void disposeInternal(final long handle);
+}
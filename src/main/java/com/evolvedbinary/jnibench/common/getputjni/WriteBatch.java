@@ -0,0 +1,131 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.getputjni;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Collects many key/value puts into a single off-heap buffer,
+ * so that they can all be written to the db with one JNI call.
+ * <p>
+ * Each put is stored as a length-prefixed record:
+ * <pre>
+ *   int32 keyLength | key bytes | int32 valueLength | value bytes
+ * </pre>
+ * with the lengths in native byte order.
+ */
+public final class WriteBatch {
+
+    private final ByteBuffer batch;
+    private int count;
+
+    /**
+     * @param batch a direct buffer to pack the records into
+     */
+    public WriteBatch(final ByteBuffer batch) {
+        if (!batch.isDirect()) {
+            throw new IllegalArgumentException("WriteBatch requires a direct ByteBuffer");
+        }
+        this.batch = batch;
+        this.batch.order(ByteOrder.nativeOrder());
+        clear();
+    }
+
+    /**
+     * Calculate the number of bytes needed to hold a record.
+     *
+     * @param keyLength the length of the key
+     * @param valueLength the length of the value
+     * @return the size of the record in the batch
+     */
+    public static int recordSize(final int keyLength, final int valueLength) {
+        return Integer.BYTES + keyLength + Integer.BYTES + valueLength;
+    }
+
+    public WriteBatch put(final byte[] key, final int keyOffset, final int keyLength,
+                          final byte[] value, final int valueOffset, final int valueLength) {
+        batch.putInt(keyLength);
+        batch.put(key, keyOffset, keyLength);
+        batch.putInt(valueLength);
+        batch.put(value, valueOffset, valueLength);
+        count++;
+        return this;
+    }
+
+    /**
+     * Add a put whose value is the first valueLength bytes of value.
+     * The position and limit of value are restored afterwards, so it must not be used by another thread meanwhile.
+     */
+    public WriteBatch put(final byte[] key, final int keyOffset, final int keyLength,
+                          final ByteBuffer value, final int valueLength) {
+        batch.putInt(keyLength);
+        batch.put(key, keyOffset, keyLength);
+        batch.putInt(valueLength);
+        // a bulk copy of value itself, rather than of a duplicate, so that no garbage is made for each put
+        final int position = value.position();
+        final int limit = value.limit();
+        value.limit(valueLength);
+        value.position(0);
+        try {
+            batch.put(value);
+        } finally {
+            value.limit(limit);
+            value.position(position);
+        }
+        count++;
+        return this;
+    }
+
+    /**
+     * @return the number of puts in the batch
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return the number of bytes of the buffer in use by the batch
+     */
+    public int size() {
+        return batch.position();
+    }
+
+    public void clear() {
+        batch.clear();
+        count = 0;
+    }
+
+    /**
+     * Write all of the puts in the batch with a single JNI call.
+     *
+     * @return the number of puts written, or -1 on error
+     */
+    public int commit() {
+        return GetPutJNI.putBatchFromDirectByteBuffer(batch, batch.position());
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.iterators;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A cursor over a snapshot written by {@link NativeIterator#exportSnapshot(Path)},
+ * which is memory mapped, so that a scan makes no native call per element, and is served from the page cache.
+ *
+ * The snapshot is a 32 bit element count, followed by each element as a 32 bit length and its bytes,
+ * all in native byte order. It is mapped as a single {@link MappedByteBuffer}, so must be smaller than 2GB.
+ * The mapping is released when this is garbage collected.
+ */
+public final class MappedSnapshot {
+
+    static final int HEADER_BYTES = Integer.BYTES;
+    static final int LENGTH_BYTES = Integer.BYTES;
+
+    private final ByteBuffer mapped;
+    private final ByteBuffer view;
+    private final int count;
+    private int offset;
+    private int key;
+
+    private MappedSnapshot(final ByteBuffer mapped) {
+        this.mapped = mapped;
+        this.view = mapped.duplicate();
+        this.count = mapped.getInt(0);
+        rewind();
+    }
+
+    public static MappedSnapshot open(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot of " + size + " bytes cannot be mapped: " + path);
+            }
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.nativeOrder());
+            return new MappedSnapshot(mapped);
+        }
+    }
+
+    /**
+     * @return the number of elements in the snapshot
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Move back to before the first element.
+     */
+    public void rewind() {
+        offset = HEADER_BYTES;
+        key = -1;
+    }
+
+    /**
+     * Move to the next element.
+     *
+     * @return false when there are no more elements
+     */
+    public boolean advance() {
+        if (key + 1 >= count) {
+            return false;
+        }
+        final int length = mapped.getInt(offset);
+        final int start = offset + LENGTH_BYTES;
+        offset = start + length;
+        view.limit(offset).position(start);
+        key++;
+        return true;
+    }
+
+    /**
+     * @return the index of the current element
+     */
+    public int key() {
+        return key;
+    }
+
+    /**
+     * @return a read-only view of the current element, from its position to its limit, valid until the next advance
+     */
+    public ByteBuffer value() {
+        return view;
+    }
+}
@@ -28,10 +28,83 @@ package com.evolvedbinary.jnibench.common.iterators;
 
 import com.evolvedbinary.jnibench.common.NativeBackedObject;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public class NativeIterator extends NativeBackedObject {
 
+    /**
+     * How the native iterator stores its elements, the ordinals match Iterator::Layout.
+     */
+    public enum Layout {
+        /**
+         * A separate std::vector for each element.
+         */
+        VECTORS,
+
+        /**
+         * One contiguous buffer for all of the elements, with a table of their offsets.
+         */
+        ARENA
+    }
+
     public NativeIterator(int numElements, long elementSize) {
-        _nativeHandle = createIterator(numElements, elementSize);
+        this(numElements, elementSize, Layout.VECTORS);
+    }
+
+    public NativeIterator(int numElements, long elementSize, Layout layout) {
+        _nativeHandle = createIterator(numElements, elementSize, layout.ordinal());
+    }
+
+    private NativeIterator(final long nativeHandle) {
+        _nativeHandle = nativeHandle;
+    }
+
+    /**
+     * An independent iterator over the elements [from, to) of this one,
+     * which shares rather than copies them, so that it can be used from another thread.
+     */
+    public NativeIterator range(final int from, final int to) {
+        return new NativeIterator(createRange(_nativeHandle, from, to));
+    }
+
+    /**
+     * @return the index of the element which {@link #next()} would return
+     */
+    public int position() {
+        return position(_nativeHandle);
+    }
+
+    /**
+     * @return the index after the last element
+     */
+    public int end() {
+        return end(_nativeHandle);
+    }
+
+    /**
+     * A stream of the remaining elements, which does not advance this iterator.
+     * A parallel stream is split by element index, and each of its workers scans with its own native iterator.
+     * Each element is a view which is only valid until the next element, see {@link NativeIteratorSpliterator}.
+     *
+     * The stream must be closed, to dispose of the native iterators of any incomplete scans.
+     */
+    public Stream<ByteBuffer> stream(final boolean parallel) {
+        final NativeIteratorSpliterator spliterator = new NativeIteratorSpliterator(this, position(), end());
+        return StreamSupport.stream(spliterator, parallel).onClose(spliterator::closeAll);
+    }
+
+    /**
+     * Write the remaining elements, without advancing this iterator, to a file which can be scanned
+     * with {@link MappedSnapshot}, see it for the layout.
+     *
+     * @return the size of the file in bytes
+     */
+    public long exportSnapshot(final Path path) throws IOException {
+        return exportSnapshot(_nativeHandle, path.toAbsolutePath().toString());
     }
 
     public boolean hasNext() {
@@ -42,13 +115,111 @@ public class NativeIterator extends NativeBackedObject {
         return next(_nativeHandle);
     }
 
+    /**
+     * @return true if there is an element before the current position
+     */
+    public boolean hasPrev() {
+        return hasPrev(_nativeHandle);
+    }
+
+    /**
+     * Move back over the element before the current position, so a following {@link #next()} returns it again.
+     *
+     * @return the element before the current position
+     */
+    public byte[] prev() {
+        return prev(_nativeHandle);
+    }
+
+    /**
+     * Position so that {@link #next()} returns the first element at or after index,
+     * clamped to the bounds of this iterator.
+     */
+    public void seek(final int index) {
+        seek(_nativeHandle, index);
+    }
+
+    /**
+     * Position so that {@link #prev()} returns the last element at or before index,
+     * clamped to the bounds of this iterator.
+     */
+    public void seekForPrev(final int index) {
+        seekForPrev(_nativeHandle, index);
+    }
+
+    /**
+     * Stop the iteration before the element at upperBound, which is clamped to the elements this iterator
+     * was created over, so a bound past them removes it. The position is moved back to the bound if it is past it.
+     */
+    public void setUpperBound(final int upperBound) {
+        setUpperBound(_nativeHandle, upperBound);
+    }
+
+    /**
+     * Copy as many of the next elements as fit into dst, one after another from its position,
+     * in a single native call. The position of dst is advanced past the elements.
+     *
+     * @param dst a direct or heap buffer to receive the elements
+     * @param lengths receives the length of each element, its length limits the number of elements
+     *
+     * @return the number of elements, 0 when there are no more elements
+     *
+     * @throws IllegalArgumentException if the next element does not fit in the remaining space of dst
+     */
+    public int nextBatch(final ByteBuffer dst, final int[] lengths) {
+        final int position = dst.position();
+        final int count;
+        if (dst.isDirect()) {
+            count = nextBatchDirect(_nativeHandle, dst, position, dst.remaining(), lengths, lengths.length);
+        } else {
+            count = nextBatchArray(_nativeHandle, dst.array(), dst.arrayOffset() + position, dst.remaining(),
+                    lengths, lengths.length);
+        }
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            size += lengths[i];
+        }
+        dst.position(position + size);
+        return count;
+    }
+
+    /**
+     * Copy as many of the next elements as fit into native memory, one after another,
+     * in a single native call.
+     *
+     * @param address of the native memory to receive the elements, e.g. from Unsafe#allocateMemory
+     * @param capacity of the native memory in bytes
+     * @param lengths receives the length of each element, its length limits the number of elements
+     *
+     * @return the number of elements, 0 when there are no more elements
+     *
+     * @throws IllegalArgumentException if the next element is larger than capacity
+     */
+    public int nextBatch(final long address, final int capacity, final int[] lengths) {
+        return nextBatchAddress(_nativeHandle, address, capacity, lengths, lengths.length);
+    }
+
     @Override
     protected void disposeInternal() {
         disposeInternal(_nativeHandle);
     }
 
-    private native long createIterator(int numElements, long elementSize);
+    private native long createIterator(int numElements, long elementSize, int layout);
+    private native long createRange(long handle, int from, int to);
+    private native int position(long handle);
+    private native int end(long handle);
+    private native long exportSnapshot(long handle, String path) throws IOException;
     private native boolean hasNext(long handle);
     private native byte[] next(long handle);
+    private native boolean hasPrev(long handle);
+    private native byte[] prev(long handle);
+    private native void seek(long handle, int index);
+    private native void seekForPrev(long handle, int index);
+    private native void setUpperBound(long handle, int upperBound);
+    private native int nextBatchDirect(long handle, ByteBuffer dst, int dstOffset, int dstLength, int[] lengths,
+            int maxCount);
+    private native int nextBatchArray(long handle, byte[] dst, int dstOffset, int dstLength, int[] lengths,
+            int maxCount);
+    private native int nextBatchAddress(long handle, long dstAddress, int dstLength, int[] lengths, int maxCount);
     private native void disposeInternal(long handle);
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.iterators;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An allocation free cursor over the elements of a {@link NativeIterator}.
+ *
+ * Elements are fetched in batches with {@link NativeIterator#nextBatch(ByteBuffer, int[])} into a direct buffer,
+ * and the current element is exposed through a single reused read-only view of it,
+ * which is only valid until the next {@link #advance()}.
+ *
+ * <pre>
+ * while (cursor.advance()) {
+ *     consume(cursor.key(), cursor.value());
+ * }
+ * </pre>
+ */
+public final class NativeIteratorCursor {
+
+    private NativeIterator iterator;
+    private ByteBuffer batch;
+    private ByteBuffer view;
+    private final int[] lengths;
+    private int batchCount;
+    private int batchIndex;
+    private int viewEnd;
+    private int key;
+
+    /**
+     * @param iterator to fetch the elements from, which is not closed by this
+     * @param batchBytes the size of each batch, grown if an element is larger
+     */
+    public NativeIteratorCursor(final NativeIterator iterator, final int batchBytes) {
+        this(batchBytes);
+        reset(iterator);
+    }
+
+    /**
+     * Create a cursor which must be {@link #reset(NativeIterator)} before it is advanced.
+     *
+     * @param batchBytes the size of each batch, grown if an element is larger
+     */
+    public NativeIteratorCursor(final int batchBytes) {
+        this.batch = ByteBuffer.allocateDirect(batchBytes);
+        this.view = batch.asReadOnlyBuffer();
+        this.lengths = new int[Math.max(1, batchBytes / 8)];
+    }
+
+    /**
+     * Reuse this cursor, and its batch buffer, for another iterator.
+     *
+     * @param iterator to fetch the elements from, which is not closed by this
+     */
+    public void reset(final NativeIterator iterator) {
+        this.iterator = iterator;
+        this.batchCount = 0;
+        this.batchIndex = 0;
+        this.viewEnd = 0;
+        this.key = iterator.position() - 1;
+    }
+
+    /**
+     * Move to the next element.
+     *
+     * @return false when there are no more elements
+     */
+    public boolean advance() {
+        if (batchIndex == batchCount && !fill()) {
+            return false;
+        }
+        final int start = viewEnd;
+        viewEnd += lengths[batchIndex++];
+        view.limit(viewEnd).position(start);
+        key++;
+        return true;
+    }
+
+    /**
+     * The native iterator has no keys of its own, so the key of an element is its index.
+     *
+     * @return the index of the current element
+     */
+    public int key() {
+        return key;
+    }
+
+    /**
+     * @return a read-only view of the current element, from its position to its limit, valid until the next advance
+     */
+    public ByteBuffer value() {
+        return view;
+    }
+
+    private boolean fill() {
+        while (true) {
+            batch.clear();
+            try {
+                batchCount = iterator.nextBatch(batch, lengths);
+                break;
+            } catch (final IllegalArgumentException e) {
+                // the next element is larger than the batch
+                batch = ByteBuffer.allocateDirect(batch.capacity() * 2);
+                view = batch.asReadOnlyBuffer();
+            }
+        }
+        batchIndex = 0;
+        viewEnd = 0;
+        return batchCount > 0;
+    }
+}
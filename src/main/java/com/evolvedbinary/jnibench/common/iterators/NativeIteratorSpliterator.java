@@ -0,0 +1,145 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.iterators;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over the element index range [index, fence) of a {@link NativeIterator}.
+ *
+ * It splits by halving its index range, and only creates its own native iterator, with {@link NativeIterator#range(int, int)},
+ * once it is traversed, so the splits of a parallel stream scan disjoint slices concurrently.
+ * Elements are read through a {@link NativeIteratorCursor}, so each is passed to the action as a read-only view,
+ * which is only valid until the action returns.
+ */
+public final class NativeIteratorSpliterator implements Spliterator<ByteBuffer> {
+
+    private static final int BATCH_BYTES = 64 * 1024;
+    private static final int MIN_SPLIT = 64;
+
+    private final NativeIterator source;
+    // every native iterator created by this and its splits
+    private final Queue<NativeIterator> cursors;
+    private int index;
+    private final int fence;
+
+    private NativeIterator range;
+    private NativeIteratorCursor cursor;
+
+    NativeIteratorSpliterator(final NativeIterator source, final int index, final int fence) {
+        this(source, new ConcurrentLinkedQueue<>(), index, fence);
+    }
+
+    private NativeIteratorSpliterator(final NativeIterator source, final Queue<NativeIterator> cursors,
+            final int index, final int fence) {
+        this.source = source;
+        this.cursors = cursors;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super ByteBuffer> action) {
+        if (index >= fence) {
+            return false;
+        }
+        index++;
+        action.accept(next());
+        if (index >= fence) {
+            release();
+        }
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super ByteBuffer> action) {
+        while (index < fence) {
+            index++;
+            action.accept(next());
+        }
+        release();
+    }
+
+    @Override
+    public Spliterator<ByteBuffer> trySplit() {
+        final int mid = (index + fence) >>> 1;
+        if (mid - index < MIN_SPLIT) {
+            return null;
+        }
+        // the native iterator, if any, is positioned before mid, so this starts again from mid with a new one
+        release();
+        final NativeIteratorSpliterator prefix = new NativeIteratorSpliterator(source, cursors, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    private ByteBuffer next() {
+        if (cursor == null) {
+            // index has already been advanced past the element to return
+            range = source.range(index - 1, fence);
+            cursors.add(range);
+            cursor = new NativeIteratorCursor(range, BATCH_BYTES);
+        }
+        if (!cursor.advance()) {
+            throw new IllegalStateException("Native iterator ended before " + fence);
+        }
+        return cursor.value();
+    }
+
+    private void release() {
+        if (range != null) {
+            cursors.remove(range);
+            range.close();
+            range = null;
+            cursor = null;
+        }
+    }
+
+    /**
+     * Dispose of the native iterators of any splits which were not traversed to the end.
+     */
+    void closeAll() {
+        NativeIterator remaining;
+        while ((remaining = cursors.poll()) != null) {
+            remaining.close();
+        }
+    }
+}
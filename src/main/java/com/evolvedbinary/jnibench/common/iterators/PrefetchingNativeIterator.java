@@ -0,0 +1,190 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.iterators;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * Fills chunks from a {@link NativeIterator} on another thread, with {@link NativeIterator#nextBatch(ByteBuffer, int[])},
+ * while the caller drains the chunks filled before them.
+ *
+ * There are never more chunks in flight than buffers supplied; with two the caller drains one while the other is filled.
+ * The iterator is owned, and closed, by this; it is only ever used from the filling thread.
+ *
+ * <pre>
+ * Chunk chunk;
+ * while ((chunk = prefetching.nextChunk()) != null) {
+ *     // chunk.count elements, packed in chunk.buffer, of chunk.lengths
+ *     prefetching.release(chunk);
+ * }
+ * </pre>
+ */
+public class PrefetchingNativeIterator implements AutoCloseable {
+
+    /**
+     * Elements packed one after another from position 0 of buffer.
+     */
+    public static final class Chunk {
+        public final ByteBuffer buffer;
+        public final int[] lengths;
+        public int count;
+
+        Chunk(final ByteBuffer buffer, final int[] lengths) {
+            this.buffer = buffer;
+            this.lengths = lengths;
+        }
+    }
+
+    private static final Chunk END = new Chunk(null, null);
+
+    private final NativeIterator iterator;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile boolean closed;
+    private Thread filler;
+    private volatile Throwable failure;
+    private boolean exhausted;
+
+    /**
+     * @param iterator the iterator to fill chunks from, closed when this is closed
+     * @param buffers one per chunk, direct buffers avoid a copy
+     * @param maxElementsPerChunk the most elements in a chunk
+     * @param executor runs the filling, e.g. on a platform or a virtual thread
+     */
+    public PrefetchingNativeIterator(final NativeIterator iterator, final ByteBuffer[] buffers,
+            final int maxElementsPerChunk, final Executor executor) {
+        if (buffers.length == 0) {
+            throw new IllegalArgumentException("At least one buffer is required");
+        }
+        this.iterator = iterator;
+        this.free = new ArrayBlockingQueue<>(buffers.length);
+        this.filled = new ArrayBlockingQueue<>(buffers.length + 1);
+        for (final ByteBuffer buffer : buffers) {
+            free.add(new Chunk(buffer, new int[maxElementsPerChunk]));
+        }
+        executor.execute(this::fill);
+    }
+
+    private void fill() {
+        synchronized (this) {
+            filler = Thread.currentThread();
+        }
+        try {
+            while (!closed) {
+                final Chunk chunk = free.take();
+                chunk.buffer.clear();
+                chunk.count = iterator.nextBatch(chunk.buffer, chunk.lengths);
+                if (chunk.count == 0) {
+                    break;
+                }
+                filled.put(chunk);
+            }
+        } catch (final InterruptedException e) {
+            if (!closed) {
+                failure = e;
+            }
+        } catch (final Throwable t) {
+            failure = t;
+        } finally {
+            filled.offer(END);
+            synchronized (this) {
+                filler = null;
+                // the executor may reuse this thread, it must not see an interrupt meant for this fill
+                Thread.interrupted();
+            }
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Wait for the next chunk.
+     *
+     * @return the next chunk, to be given back with {@link #release(Chunk)} once drained,
+     *     or null when there are no more elements
+     *
+     * @throws IllegalStateException if filling the chunk failed
+     */
+    public Chunk nextChunk() {
+        if (exhausted) {
+            return null;
+        }
+        final Chunk chunk;
+        try {
+            chunk = filled.take();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the next chunk", e);
+        }
+        if (chunk == END) {
+            exhausted = true;
+            if (failure != null) {
+                throw new IllegalStateException("Filling the next chunk failed", failure);
+            }
+            return null;
+        }
+        return chunk;
+    }
+
+    /**
+     * Give back a drained chunk so that it can be filled again.
+     */
+    public void release(final Chunk chunk) {
+        free.offer(chunk);
+    }
+
+    /**
+     * Stop filling, wait for any fill in progress to finish, then close the iterator.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            if (filler != null) {
+                filler.interrupt();
+            }
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                finished.await();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        iterator.close();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -31,6 +31,7 @@ import com.evolvedbinary.jnibench.common.array.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.evolvedbinary.jnibench.consbench.BenchmarkHelper.outputResults;
 import static com.evolvedbinary.jnibench.consbench.BenchmarkHelper.time;
@@ -56,7 +57,7 @@ public class ArrayBenchmark implements BenchmarkInterface {
     }
 
     // create fixtures
-    final List<ArrayBenchmarkFixture> benchmarkFixtures = new ArrayList<>(8 * arraySizes.length);
+    final List<ArrayBenchmarkFixture> benchmarkFixtures = new ArrayList<>(11 * arraySizes.length);
     for (int i = 0; i < arraySizes.length; i ++) {
       final int arraySize = arraySizes[i];
 
@@ -68,6 +69,9 @@ public class ArrayBenchmark implements BenchmarkInterface {
       benchmarkFixtures.add(new ArrayBenchmarkFixture(arraySize, "Allocate 2D object array in CPP and wrap result in custom Java List", AllocateInCppGet2DArrayListWrapper::new));
       benchmarkFixtures.add(new ArrayBenchmarkFixture(arraySize, "Allocate array list in Java", AllocateInJavaGetArrayList::new));
       benchmarkFixtures.add(new ArrayBenchmarkFixture(arraySize, "Allocate array list in CPP", AllocateInCppGetArrayList::new));
+      benchmarkFixtures.add(new ArrayBenchmarkFixture(arraySize, "Reuse pooled array of mutable objects in Java", AllocateInJavaGetPooledArray::new));
+      benchmarkFixtures.add(new ArrayBenchmarkFixture(arraySize, "Fetch first 4K chunk of mutable objects in Java", AllocateInJavaGetChunkedArray::new));
+      benchmarkFixtures.add(new ArrayBenchmarkFixture(arraySize, "Allocate columnar arrays in CPP and wrap result in lazy Java List", AllocateInCppGetColumnar::new));
     }
 
     // run each benchmark fixture
@@ -93,6 +97,6 @@ public class ArrayBenchmark implements BenchmarkInterface {
       final int num = random.nextInt();
       fooObjects[i] = new FooObject("str" + num, num);
     }
-    return new FooNativeObjectArray(fooObjects);
+    return FooNativeObjectArray.parallel(fooObjects, ForkJoinPool.commonPool());
   }
 }
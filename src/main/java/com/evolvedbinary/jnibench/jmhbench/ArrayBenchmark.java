@@ -29,7 +29,10 @@ package com.evolvedbinary.jnibench.jmhbench;
 import com.evolvedbinary.jnibench.common.array.*;
 import com.evolvedbinary.jnibench.consbench.NarSystem;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -38,6 +41,17 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
 public class ArrayBenchmark {
 
+  /**
+   * The filter by value benchmarks read the names of the roughly 1 in 16 elements
+   * whose value has these bits clear.
+   */
+  private static final long FILTER_MASK = 0xf;
+
+  /**
+   * The number of random gets or lookups made by the random access benchmarks.
+   */
+  private static final int LOOKUPS = 1024;
+
   static {
     NarSystem.loadLibrary();
   }
@@ -51,6 +65,15 @@ public class ArrayBenchmark {
     AllocateInCppGet2DArrayListWrapper jni2DGetArrayListWrapper;
     AllocateInJavaGetArrayList allocateInJavaGetArrayList;
     AllocateInCppGetArrayList allocateInCppGetArrayList;
+    AllocateInCppGetColumnar allocateInCppGetColumnar;
+    AllocateInJavaGetPooledArray allocateInJavaGetPooledArray;
+    AllocateInCppGetUtf8Names allocateInCppGetUtf8Names;
+    AllocateInCppGet2DArrayListWrapper jni2DGetArrayListWrapperIndexed;
+    AllocateInJavaGetChunkedArray allocateInJavaGetChunkedArray;
+
+    // equal to, but not the same objects as, random elements of the array
+    FooObject[] lookups;
+    int[] randomIndexes;
 
     public BenchmarkState() {
 
@@ -62,7 +85,12 @@ public class ArrayBenchmark {
                           AllocateInCppGet2DArray allocateInCppGet2DArray,
                           AllocateInCppGet2DArrayListWrapper jni2DGetArrayListWrapper,
                           AllocateInJavaGetArrayList allocateInJavaGetArrayList,
-                          AllocateInCppGetArrayList allocateInCppGetArrayList) {
+                          AllocateInCppGetArrayList allocateInCppGetArrayList,
+                          AllocateInCppGetColumnar allocateInCppGetColumnar,
+                          AllocateInJavaGetPooledArray allocateInJavaGetPooledArray,
+                          AllocateInCppGetUtf8Names allocateInCppGetUtf8Names,
+                          AllocateInCppGet2DArrayListWrapper jni2DGetArrayListWrapperIndexed,
+                          AllocateInJavaGetChunkedArray allocateInJavaGetChunkedArray) {
       this.fooObjectArray = fooObjectArray;
       this.allocateInJavaGet2DArray = allocateInJavaGet2DArray;
       this.allocateInCppGetArray = allocateInCppGetArray;
@@ -70,6 +98,11 @@ public class ArrayBenchmark {
       this.jni2DGetArrayListWrapper = jni2DGetArrayListWrapper;
       this.allocateInJavaGetArrayList = allocateInJavaGetArrayList;
       this.allocateInCppGetArrayList = allocateInCppGetArrayList;
+      this.allocateInCppGetColumnar = allocateInCppGetColumnar;
+      this.allocateInJavaGetPooledArray = allocateInJavaGetPooledArray;
+      this.allocateInCppGetUtf8Names = allocateInCppGetUtf8Names;
+      this.jni2DGetArrayListWrapperIndexed = jni2DGetArrayListWrapperIndexed;
+      this.allocateInJavaGetChunkedArray = allocateInJavaGetChunkedArray;
     }
 
     @Param({"10", "50", "512", "1024", "4096", "16384"})
@@ -85,12 +118,26 @@ public class ArrayBenchmark {
       }
       fooObjectArray = new FooNativeObjectArray(fooObjects);
 
+      lookups = new FooObject[LOOKUPS];
+      randomIndexes = new int[LOOKUPS];
+      for (int i = 0; i < LOOKUPS; i++) {
+        randomIndexes[i] = random.nextInt(arraySize);
+        final FooObject fooObject = fooObjects[random.nextInt(arraySize)];
+        lookups[i] = new FooObject(fooObject.getName(), fooObject.getValue());
+      }
+
       allocateInJavaGet2DArray = new AllocateInJavaGet2DArray();
       allocateInCppGetArray = new AllocateInCppGetArray();
       allocateInCppGet2DArray = new AllocateInCppGet2DArray();
       jni2DGetArrayListWrapper = new AllocateInCppGet2DArrayListWrapper();
       allocateInJavaGetArrayList = new AllocateInJavaGetArrayList();
       allocateInCppGetArrayList = new AllocateInCppGetArrayList();
+      allocateInCppGetColumnar = new AllocateInCppGetColumnar();
+      // grown by its first call, so that it does not hold arraySize objects for the other benchmarks
+      allocateInJavaGetPooledArray = new AllocateInJavaGetPooledArray();
+      allocateInCppGetUtf8Names = new AllocateInCppGetUtf8Names();
+      jni2DGetArrayListWrapperIndexed = new AllocateInCppGet2DArrayListWrapper(true);
+      allocateInJavaGetChunkedArray = new AllocateInJavaGetChunkedArray();
     }
 
     @TearDown
@@ -99,6 +146,40 @@ public class ArrayBenchmark {
     }
   }
 
+  /**
+   * The heap held live while the array is read, which is measured by collecting the garbage
+   * and comparing the used heap with that before the benchmark, so it is only meaningful
+   * for the single shot *PeakHeap benchmarks.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class HeapCounters {
+    public long peakLiveHeapBytes;
+    private long baselineHeapBytes;
+    private int measurementIterations;
+
+    @Setup(Level.Trial)
+    public void setup(final BenchmarkParams benchmarkParams) {
+      measurementIterations = benchmarkParams.getMeasurement().getCount();
+    }
+
+    @Setup(Level.Iteration)
+    public void baseline() {
+      baselineHeapBytes = usedHeapAfterGc();
+    }
+
+    void recordLiveHeap() {
+      // JMH sums EVENTS counters over the measurement iterations
+      peakLiveHeapBytes = Math.max(0, usedHeapAfterGc() - baselineHeapBytes) / measurementIterations;
+    }
+
+    private static long usedHeapAfterGc() {
+      final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      memory.gc();
+      return memory.getHeapMemoryUsage().getUsed();
+    }
+  }
+
   @Benchmark
   public List<FooObject> allocateInJavaArray(BenchmarkState benchmarkState) {
     return benchmarkState.allocateInJavaGet2DArray.getObjectList(benchmarkState.fooObjectArray);
@@ -128,4 +209,167 @@ public class ArrayBenchmark {
   public List<FooObject> allocateInCppGetArrayList(BenchmarkState benchmarkState) {
     return benchmarkState.allocateInCppGetArrayList.getObjectList(benchmarkState.fooObjectArray);
   }
+
+  @Benchmark
+  public List<FooObject> allocateInJavaGetPooledArray(BenchmarkState benchmarkState) {
+    return benchmarkState.allocateInJavaGetPooledArray.getObjectList(benchmarkState.fooObjectArray);
+  }
+
+  @Benchmark
+  public List<FooObject> allocateInCppGetColumnar(BenchmarkState benchmarkState) {
+    return benchmarkState.allocateInCppGetColumnar.getObjectList(benchmarkState.fooObjectArray);
+  }
+
+  /**
+   * As allocateInCppGetColumnar, but also decodes every element, as a caller reading the whole list would.
+   */
+  @Benchmark
+  public long allocateInCppGetColumnarDecodeAll(BenchmarkState benchmarkState) {
+    final List<FooObject> list = benchmarkState.allocateInCppGetColumnar.getObjectList(benchmarkState.fooObjectArray);
+    long sum = 0;
+    for (int i = 0; i < list.size(); i++) {
+      sum += list.get(i).hashCode();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long jniGetArrayFilterByValue(BenchmarkState benchmarkState) {
+    final List<FooObject> list = benchmarkState.allocateInCppGetArray.getObjectList(benchmarkState.fooObjectArray);
+    long sum = 0;
+    for (int i = 0; i < list.size(); i++) {
+      final FooObject fooObject = list.get(i);
+      if ((fooObject.getValue() & FILTER_MASK) == 0) {
+        sum += fooObject.getName().length();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long allocateInCppGetColumnarFilterByValue(BenchmarkState benchmarkState) {
+    final AllocateInCppGetColumnar.FooObjectColumns columns = (AllocateInCppGetColumnar.FooObjectColumns)
+        benchmarkState.allocateInCppGetColumnar.getObjectList(benchmarkState.fooObjectArray);
+    long sum = 0;
+    for (int i = 0; i < columns.size(); i++) {
+      if ((columns.getValue(i) & FILTER_MASK) == 0) {
+        sum += columns.getName(i).length();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long allocateInCppGetUtf8NamesFilterByValue(BenchmarkState benchmarkState) {
+    final List<FooUtf8Object> list = benchmarkState.allocateInCppGetUtf8Names.getObjectList(benchmarkState.fooObjectArray);
+    long sum = 0;
+    for (int i = 0; i < list.size(); i++) {
+      final FooUtf8Object fooObject = list.get(i);
+      if ((fooObject.getValue() & FILTER_MASK) == 0) {
+        sum += fooObject.getName().length();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long jniGetArrayRandomGet(BenchmarkState benchmarkState) {
+    return randomGet(benchmarkState.allocateInCppGetArray.getObjectList(benchmarkState.fooObjectArray), benchmarkState);
+  }
+
+  @Benchmark
+  public long jni2DGetArrayListWrapperRandomGet(BenchmarkState benchmarkState) {
+    return randomGet(benchmarkState.jni2DGetArrayListWrapper.getObjectList(benchmarkState.fooObjectArray), benchmarkState);
+  }
+
+  @Benchmark
+  public int jniGetArrayContains(BenchmarkState benchmarkState) {
+    return contains(benchmarkState.allocateInCppGetArray.getObjectList(benchmarkState.fooObjectArray), benchmarkState);
+  }
+
+  @Benchmark
+  public int jni2DGetArrayListWrapperContains(BenchmarkState benchmarkState) {
+    return contains(benchmarkState.jni2DGetArrayListWrapper.getObjectList(benchmarkState.fooObjectArray), benchmarkState);
+  }
+
+  @Benchmark
+  public int jni2DGetArrayListWrapperIndexedContains(BenchmarkState benchmarkState) {
+    return contains(benchmarkState.jni2DGetArrayListWrapperIndexed.getObjectList(benchmarkState.fooObjectArray), benchmarkState);
+  }
+
+  private static long randomGet(final List<FooObject> list, final BenchmarkState benchmarkState) {
+    long sum = 0;
+    for (final int index : benchmarkState.randomIndexes) {
+      sum += list.get(index).getValue();
+    }
+    return sum;
+  }
+
+  private static int contains(final List<FooObject> list, final BenchmarkState benchmarkState) {
+    int found = 0;
+    for (final FooObject lookup : benchmarkState.lookups) {
+      if (list.contains(lookup)) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public FooObject jniGetArrayFirstRecord(BenchmarkState benchmarkState) {
+    return benchmarkState.allocateInCppGetArray.getObjectList(benchmarkState.fooObjectArray).get(0);
+  }
+
+  @Benchmark
+  public FooObject allocateInJavaGetChunkedArrayFirstRecord(BenchmarkState benchmarkState) {
+    return benchmarkState.allocateInJavaGetChunkedArray.getObjectList(benchmarkState.fooObjectArray).get(0);
+  }
+
+  @Benchmark
+  public long jniGetArrayFetchAll(BenchmarkState benchmarkState) {
+    return sumValues(benchmarkState.allocateInCppGetArray.getObjectList(benchmarkState.fooObjectArray));
+  }
+
+  @Benchmark
+  public long allocateInJavaGetChunkedArrayFetchAll(BenchmarkState benchmarkState) {
+    final AllocateInJavaGetChunkedArray chunked = benchmarkState.allocateInJavaGetChunkedArray;
+    long sum = 0;
+    int from = 0;
+    int len;
+    while ((len = chunked.getChunk(benchmarkState.fooObjectArray, from)) > 0) {
+      for (int i = 0; i < len; i++) {
+        sum += chunked.get(i).getValue();
+      }
+      from += len;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  public long jniGetArrayPeakHeap(BenchmarkState benchmarkState, HeapCounters heapCounters) {
+    final List<FooObject> list = benchmarkState.allocateInCppGetArray.getObjectList(benchmarkState.fooObjectArray);
+    heapCounters.recordLiveHeap();
+    return sumValues(list);
+  }
+
+  /**
+   * As allocateInJavaGetChunkedArrayFetchAll, but the live heap is measured with the first
+   * window fetched, as only one window is ever live.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  public long allocateInJavaGetChunkedArrayPeakHeap(BenchmarkState benchmarkState, HeapCounters heapCounters) {
+    final List<FooObject> list = benchmarkState.allocateInJavaGetChunkedArray.getObjectList(benchmarkState.fooObjectArray);
+    heapCounters.recordLiveHeap();
+    return sumValues(list);
+  }
+
+  private static long sumValues(final List<FooObject> list) {
+    long sum = 0;
+    for (final FooObject fooObject : list) {
+      sum += fooObject.getValue();
+    }
+    return sum;
+  }
 }
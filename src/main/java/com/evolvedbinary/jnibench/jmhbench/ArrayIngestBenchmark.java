@@ -0,0 +1,98 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench;
+
+import com.evolvedbinary.jnibench.common.array.FooNativeObjectArray;
+import com.evolvedbinary.jnibench.common.array.FooObject;
+import com.evolvedbinary.jnibench.consbench.NarSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Populating a {@link FooNativeObjectArray} from Java, on one thread or split across a ForkJoinPool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArrayIngestBenchmark {
+
+  static {
+    NarSystem.loadLibrary();
+  }
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"16384", "1048576"})
+    public int arraySize;
+
+    FooObject[] fooObjects;
+
+    @Setup
+    public void setup() {
+      fooObjects = new FooObject[arraySize];
+      Random random = new Random();
+      for (int i = 0; i < arraySize; i++) {
+        int num = random.nextInt();
+        fooObjects[i] = new FooObject("str" + num, num);
+      }
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class PoolState {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+      pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+      pool.shutdown();
+    }
+  }
+
+  @Benchmark
+  public long ingestSerial(BenchmarkState benchmarkState) {
+    try (FooNativeObjectArray array = new FooNativeObjectArray(benchmarkState.fooObjects)) {
+      return array.get_nativeHandle();
+    }
+  }
+
+  @Benchmark
+  public long ingestParallel(BenchmarkState benchmarkState, PoolState poolState) {
+    try (FooNativeObjectArray array = FooNativeObjectArray.parallel(benchmarkState.fooObjects, poolState.pool)) {
+      return array.get_nativeHandle();
+    }
+  }
+}
@@ -26,15 +26,21 @@
  */
 package com.evolvedbinary.jnibench.jmhbench;
 
+import com.evolvedbinary.jnibench.common.bytearray.KeyScratch;
 import com.evolvedbinary.jnibench.common.getputjni.GetPutJNI;
+import com.evolvedbinary.jnibench.common.getputjni.PinnedValue;
 import com.evolvedbinary.jnibench.consbench.NarSystem;
 import com.evolvedbinary.jnibench.jmhbench.cache.AllocationCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.ByteArrayCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.DirectByteBufferCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.IndirectByteBufferCache;
+import com.evolvedbinary.jnibench.jmhbench.cache.LinkedListAllocationCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.NettyByteBufCache;
+import com.evolvedbinary.jnibench.jmhbench.cache.StripedAllocationPool;
 import com.evolvedbinary.jnibench.jmhbench.cache.UnsafeBufferCache;
 import com.evolvedbinary.jnibench.jmhbench.common.JMHCaller;
+import com.evolvedbinary.jnibench.jmhbench.common.KeyWorkload;
+import com.evolvedbinary.jnibench.jmhbench.common.ValueSizeCounters;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
 import java.nio.ByteBuffer;
@@ -103,6 +109,43 @@ public class GetJNIBenchmark {
     String checksum;
     AllocationCache.Checksum readChecksum;
 
+    /**
+     * Stage keys in a per-thread native scratch buffer, rather than allocating for each call.
+     */
+    @Param({"false"})
+    boolean keyScratch;
+
+    /**
+     * Share one pool of buffers between all threads, rather than each thread having a cache of its own.
+     */
+    @Param({"false"})
+    boolean sharedCache;
+    private StripedAllocationPool<?> sharedPool;
+
+    /**
+     * How each get chooses its key: fixed always gets the value of valueSize;
+     * uniform and zipfian draw from numKeys keys, populated in the mock db with key lengths drawn from
+     * keySizeDistribution and value sizes drawn from valueSizeDistribution,
+     * and in the Throughput and AverageTime modes (e.g. -bm thrpt) the gets of each value size are reported
+     * as secondary results, see {@link ValueSizeCounters}.
+     * Buffers are then sized for the largest value, and checksums cover the whole buffer,
+     * so use checksum none to compare value sizes.
+     */
+    @Param({"fixed"})
+    String keyDistribution;
+    @Param({"4096"})
+    int numKeys;
+    /**
+     * size:weight pairs, or @path of a histogram file, see {@link com.evolvedbinary.jnibench.jmhbench.common.ValueSizeDistribution}
+     */
+    @Param({"38:1"})
+    String keySizeDistribution;
+    @Param({"10:1 50:1 512:1 1024:1 4096:1 16384:1 65536:1"})
+    String valueSizeDistribution;
+    @Param({"0.99"})
+    double zipfExponent;
+    KeyWorkload workload;
+
     String keyBase;
     byte[] keyBytes;
 
@@ -119,6 +162,25 @@ public class GetJNIBenchmark {
 
       keyBytes = keyBase.getBytes();
       readChecksum = AllocationCache.Checksum.valueOf(checksum);
+      if (sharedCache) {
+        sharedPool = new StripedAllocationPool<>();
+      }
+
+      workload = KeyWorkload.create(KeyWorkload.KeyDistribution.valueOf(keyDistribution), keyBytes, valueSize,
+                                    numKeys, keySizeDistribution, valueSizeDistribution, zipfExponent, 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+      if (sharedPool != null) {
+        sharedPool.tearDown();
+      }
+      workload.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> StripedAllocationPool<T> sharedPool() {
+      return (StripedAllocationPool<T>) sharedPool;
     }
   }
 
@@ -131,14 +193,24 @@ public class GetJNIBenchmark {
     private IndirectByteBufferCache indirectByteBufferCache = new IndirectByteBufferCache();
     private PooledByteBufAllocator pooledByteBufAllocator;
     private NettyByteBufCache nettyByteBufCache = new NettyByteBufCache();
+    private KeyScratch keyScratch;
+    private KeyWorkload.Cursor cursor;
+    private PinnedValue pinnedValue = new PinnedValue();
 
     int valueSize;
     int cacheSize;
 
     @Setup
-    public void setup(GetJNIBenchmarkState benchmarkState, Blackhole blackhole) {
-      valueSize = benchmarkState.valueSize;
+    public void setup(GetJNIBenchmarkState benchmarkState, ValueSizeCounters valueSizeCounters,
+                      Blackhole blackhole) {
+      valueSize = benchmarkState.workload.maxValueSize();
       cacheSize = benchmarkState.cacheMB * GetJNIBenchmarkState.MB;
+      cursor = benchmarkState.workload.cursor(valueSizeCounters);
+
+      if (benchmarkState.keyScratch) {
+        keyScratch = new KeyScratch(benchmarkState.workload.maxKeyLength());
+        keyScratch.register();
+      }
 
       switch (benchmarkState.caller.benchmarkMethod) {
         case "getIntoPooledNettyByteBuf":
@@ -148,30 +220,30 @@ public class GetJNIBenchmark {
                                   benchmarkState.readChecksum, blackhole);
           break;
         case "getIntoNettyByteBuf":
-          nettyByteBufCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead, benchmarkState.readChecksum,
-                                  blackhole);
+          setupCache(nettyByteBufCache, benchmarkState, blackhole);
           break;
         case "getIntoDirectByteBuffer":
-          directByteBufferCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead,
+          setupCache(directByteBufferCache, benchmarkState, blackhole);
+          break;
+        case "getPinned":
+          //create a 0-sized cache so that we can use it to do checksum
+          directByteBufferCache.setup(valueSize, benchmarkState.cacheEntryOverhead, 0/*cacheSize*/,
                                       benchmarkState.readChecksum, blackhole);
           break;
         case "getIntoIndirectByteBufferSetRegion":
         case "getIntoIndirectByteBufferGetElements":
         case "getIntoIndirectByteBufferGetCritical":
-          indirectByteBufferCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead,
-                                        benchmarkState.readChecksum, blackhole);
+          setupCache(indirectByteBufferCache, benchmarkState, blackhole);
           break;
         case "getIntoDirectByteBufferFromUnsafe":
         case "buffersOnlyDirectByteBufferFromUnsafe":
         case "getIntoUnsafe":
-          unsafeBufferCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead, benchmarkState.readChecksum,
-                                  blackhole);
+          setupCache(unsafeBufferCache, benchmarkState, blackhole);
           break;
         case "getIntoByteArraySetRegion":
         case "getIntoByteArrayGetElements":
         case "getIntoByteArrayCritical":
-          byteArrayCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead, benchmarkState.readChecksum,
-                               blackhole);
+          setupCache(byteArrayCache, benchmarkState, blackhole);
           break;
         default:
           throw new RuntimeException(
@@ -179,9 +251,32 @@ public class GetJNIBenchmark {
       }
     }
 
+    private <T> void setupCache(LinkedListAllocationCache<T> cache, GetJNIBenchmarkState benchmarkState,
+                                Blackhole blackhole) {
+      if (benchmarkState.sharedCache) {
+        cache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize, benchmarkState.readChecksum, blackhole,
+                    benchmarkState.sharedPool());
+      } else {
+        cache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize, benchmarkState.readChecksum, blackhole);
+      }
+
+      // both modes must hold the same number of buffers, for their results to be comparable
+      final int expected = LinkedListAllocationCache.capacityFor(valueSize, benchmarkState.cacheEntryOverhead, cacheSize);
+      if (cache.capacity() != expected) {
+        throw new IllegalStateException("Cache holds " + cache.capacity() + " buffers, expected " + expected
+            + " (sharedCache=" + benchmarkState.sharedCache + ")");
+      }
+    }
+
     @TearDown
     public void tearDown(GetJNIBenchmarkState benchmarkState) {
 
+
+      if (keyScratch != null) {
+        keyScratch.close();
+        keyScratch = null;
+      }
+
       switch (benchmarkState.caller.benchmarkMethod) {
         case "getIntoPooledNettyByteBuf":
           pooledByteBufAllocator = null;
@@ -192,6 +287,10 @@ public class GetJNIBenchmark {
         case "getIntoDirectByteBuffer":
           directByteBufferCache.tearDown();
           break;
+        case "getPinned":
+          pinnedValue.close();
+          directByteBufferCache.tearDown();
+          break;
         case "getIntoIndirectByteBufferSetRegion":
         case "getIntoIndirectByteBufferGetElements":
         case "getIntoIndirectByteBufferGetCritical":
@@ -223,19 +322,34 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoDirectByteBuffer(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                       Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuffer byteBuffer = threadState.directByteBufferCache.acquire();
     byteBuffer.clear();
-    GetPutJNI.getIntoDirectByteBuffer(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, byteBuffer,
-                                      benchmarkState.valueSize);
+    GetPutJNI.getIntoDirectByteBuffer(cursor.key, 0, cursor.key.length, byteBuffer,
+                                      cursor.valueSize);
     threadState.directByteBufferCache.checksumBuffer(byteBuffer);
     threadState.directByteBufferCache.release(byteBuffer);
   }
 
+  @Benchmark
+  public void getPinned(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState, Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
+    final PinnedValue pinnedValue = threadState.pinnedValue;
+    final ByteBuffer value = GetPutJNI.getPinned(pinnedValue, cursor.key, 0, cursor.key.length);
+    //Use 0-sized cache which we created specially to do checksumBuffer operation
+    threadState.directByteBufferCache.checksumBuffer(value);
+    pinnedValue.release();
+  }
+
   @Benchmark
   public void getIntoUnsafe(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState, Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     UnsafeBufferCache.UnsafeBuffer unsafeBuffer = threadState.unsafeBufferCache.acquire();
-    int size = GetPutJNI.getIntoUnsafe(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, unsafeBuffer.handle,
-                                       benchmarkState.valueSize);
+    int size = GetPutJNI.getIntoUnsafe(cursor.key, 0, cursor.key.length, unsafeBuffer.handle,
+                                       cursor.valueSize);
     threadState.unsafeBufferCache.checksumBuffer(unsafeBuffer);
     threadState.unsafeBufferCache.release(unsafeBuffer);
   }
@@ -243,10 +357,12 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoPooledNettyByteBuf(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                         Blackhole blackhole) {
-    ByteBuf byteBuf = threadState.pooledByteBufAllocator.directBuffer(benchmarkState.valueSize);
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
+    ByteBuf byteBuf = threadState.pooledByteBufAllocator.directBuffer(cursor.valueSize);
     byteBuf.readerIndex(0);
-    int size = GetPutJNI.getIntoUnsafe(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length,
-                                       byteBuf.memoryAddress(), benchmarkState.valueSize);
+    int size = GetPutJNI.getIntoUnsafe(cursor.key, 0, cursor.key.length,
+                                       byteBuf.memoryAddress(), cursor.valueSize);
     byteBuf.writerIndex(size);
     //Use 0-sized cache which we created specially to do checksumBuffer operation
     threadState.nettyByteBufCache.checksumBuffer(byteBuf);
@@ -257,10 +373,12 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoNettyByteBuf(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                   Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuf byteBuf = threadState.nettyByteBufCache.acquire();
     byteBuf.readerIndex(0);
-    int size = GetPutJNI.getIntoUnsafe(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length,
-                                       byteBuf.memoryAddress(), benchmarkState.valueSize);
+    int size = GetPutJNI.getIntoUnsafe(cursor.key, 0, cursor.key.length,
+                                       byteBuf.memoryAddress(), cursor.valueSize);
     byteBuf.writerIndex(size);
     threadState.nettyByteBufCache.checksumBuffer(byteBuf);
     threadState.nettyByteBufCache.release(byteBuf);
@@ -269,9 +387,11 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoByteArraySetRegion(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                         Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     byte[] array = threadState.byteArrayCache.acquire();
-    int size = GetPutJNI.getIntoByteArraySetRegion(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, array,
-                                                   benchmarkState.valueSize);
+    int size = GetPutJNI.getIntoByteArraySetRegion(cursor.key, 0, cursor.key.length, array,
+                                                   cursor.valueSize);
     threadState.byteArrayCache.checksumBuffer(array);
     threadState.byteArrayCache.release(array);
   }
@@ -279,9 +399,11 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoByteArrayGetElements(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                           Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     byte[] array = threadState.byteArrayCache.acquire();
-    int size = GetPutJNI.getIntoByteArrayGetElements(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, array,
-                                                     benchmarkState.valueSize);
+    int size = GetPutJNI.getIntoByteArrayGetElements(cursor.key, 0, cursor.key.length, array,
+                                                     cursor.valueSize);
     threadState.byteArrayCache.checksumBuffer(array);
     threadState.byteArrayCache.release(array);
   }
@@ -289,9 +411,11 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoByteArrayCritical(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                        Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     byte[] array = threadState.byteArrayCache.acquire();
-    int size = GetPutJNI.getIntoByteArrayCritical(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, array,
-                                                  benchmarkState.valueSize);
+    int size = GetPutJNI.getIntoByteArrayCritical(cursor.key, 0, cursor.key.length, array,
+                                                  cursor.valueSize);
     threadState.byteArrayCache.checksumBuffer(array);
     threadState.byteArrayCache.release(array);
   }
@@ -303,10 +427,12 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoIndirectByteBufferSetRegion(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                                  Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuffer byteBuffer = threadState.indirectByteBufferCache.acquire();
     byteBuffer.clear();
-    GetPutJNI.getIntoIndirectByteBufferSetRegion(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, byteBuffer,
-                                                 benchmarkState.valueSize);
+    GetPutJNI.getIntoIndirectByteBufferSetRegion(cursor.key, 0, cursor.key.length, byteBuffer,
+                                                 cursor.valueSize);
     threadState.indirectByteBufferCache.checksumBuffer(byteBuffer);
     threadState.indirectByteBufferCache.release(byteBuffer);
   }
@@ -314,11 +440,13 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoIndirectByteBufferGetElements(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                                    Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuffer byteBuffer = threadState.indirectByteBufferCache.acquire();
     byteBuffer.clear();
-    int size = GetPutJNI.getIntoIndirectByteBufferGetElements(benchmarkState.keyBytes, 0,
-                                                              benchmarkState.keyBytes.length, byteBuffer,
-                                                              benchmarkState.valueSize);
+    int size = GetPutJNI.getIntoIndirectByteBufferGetElements(cursor.key, 0,
+                                                              cursor.key.length, byteBuffer,
+                                                              cursor.valueSize);
     threadState.indirectByteBufferCache.checksumBuffer(byteBuffer);
     threadState.indirectByteBufferCache.release(byteBuffer);
   }
@@ -326,11 +454,13 @@ public class GetJNIBenchmark {
   @Benchmark
   public void getIntoIndirectByteBufferGetCritical(GetJNIBenchmarkState benchmarkState, GetJNIThreadState threadState,
                                                    Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuffer byteBuffer = threadState.indirectByteBufferCache.acquire();
     byteBuffer.clear();
-    int size = GetPutJNI.getIntoIndirectByteBufferGetCritical(benchmarkState.keyBytes, 0,
-                                                              benchmarkState.keyBytes.length, byteBuffer,
-                                                              benchmarkState.valueSize);
+    int size = GetPutJNI.getIntoIndirectByteBufferGetCritical(cursor.key, 0,
+                                                              cursor.key.length, byteBuffer,
+                                                              cursor.valueSize);
     threadState.indirectByteBufferCache.checksumBuffer(byteBuffer);
     threadState.indirectByteBufferCache.release(byteBuffer);
   }
@@ -26,12 +26,27 @@
  */
 package com.evolvedbinary.jnibench.jmhbench;
 
+import com.evolvedbinary.jnibench.common.iterators.MappedSnapshot;
 import com.evolvedbinary.jnibench.common.iterators.NativeIterator;
+import com.evolvedbinary.jnibench.common.iterators.NativeIteratorCursor;
+import com.evolvedbinary.jnibench.common.iterators.PrefetchingNativeIterator;
 import com.evolvedbinary.jnibench.consbench.NarSystem;
 import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
 import org.openjdk.jmh.infra.Blackhole;
+import sun.misc.Unsafe;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * Benchmark for the C++ Iterator via JNI.
@@ -46,6 +61,17 @@ public class IteratorBenchmark {
         NarSystem.loadLibrary();
     }
 
+    private static Unsafe unsafe;
+    static {
+        try {
+            Field f = Unsafe.class.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            unsafe = (Unsafe) f.get(null);
+        } catch(Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @State(Scope.Benchmark)
     public static class BenchmarkState {
 
@@ -55,6 +81,40 @@ public class IteratorBenchmark {
         @Param({"16", "128", "1024"})
         long elementSize;
 
+        /**
+         * How the native iterator stores its elements.
+         */
+        @Param({"VECTORS"})
+        NativeIterator.Layout layout;
+
+        /**
+         * Size of the buffer the iterateBatch* benchmarks fill in each native call,
+         * raised to elementSize if it is smaller.
+         */
+        @Param({"4096", "65536"})
+        int batchBytes;
+
+        /**
+         * Work done for each element, in {@link Blackhole#consumeCPU(long)} tokens,
+         * by iterateBatchDirectByteBuffer, iteratePrefetching and the iterate*Stream benchmarks.
+         */
+        @Param({"0"})
+        int consumeTokens;
+
+        /**
+         * Number of elements read by each of the seek* benchmarks, from a random offset.
+         */
+        @Param({"10"})
+        int scanLength;
+
+        /**
+         * Chunks of batchBytes that iteratePrefetching fills ahead of the consumer, on a platform or virtual (Java 21+) thread.
+         */
+        @Param({"2"})
+        int chunksInFlight;
+        @Param({"platform"})
+        String prefetchThread;
+
         @Setup(Level.Iteration)
         public void setup() {
         }
@@ -62,14 +122,372 @@ public class IteratorBenchmark {
         @TearDown(Level.Iteration)
         public void tearDown() {
         }
+
+        NativeIterator newIterator() {
+            return new NativeIterator(numElements, elementSize, layout);
+        }
+
+        int batchCapacity() {
+            return Math.max(batchBytes, Math.toIntExact(elementSize));
+        }
+
+        int maxBatchCount() {
+            return Math.max(1, batchCapacity() / Math.toIntExact(elementSize));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BatchState {
+        ByteBuffer directBuffer;
+        long unsafeAddress;
+        int capacity;
+        int[] lengths;
+
+        @Setup
+        public void setup(final BenchmarkState benchmarkState) {
+            capacity = benchmarkState.batchCapacity();
+            directBuffer = ByteBuffer.allocateDirect(capacity);
+            unsafeAddress = unsafe.allocateMemory(capacity);
+            lengths = new int[benchmarkState.maxBatchCount()];
+        }
+
+        @TearDown
+        public void tearDown() {
+            unsafe.freeMemory(unsafeAddress);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PrefetchState {
+        ExecutorService executor;
+        ByteBuffer[] buffers;
+        int maxCount;
+
+        @Setup
+        public void setup(final BenchmarkState benchmarkState) throws ReflectiveOperationException {
+            switch (benchmarkState.prefetchThread) {
+                case "platform":
+                    executor = Executors.newSingleThreadExecutor(runnable -> {
+                        final Thread thread = new Thread(runnable, "prefetch");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    break;
+                case "virtual":
+                    // Executors.newVirtualThreadPerTaskExecutor(), but this is compiled for Java 8
+                    executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown prefetchThread: " + benchmarkState.prefetchThread);
+            }
+            buffers = new ByteBuffer[benchmarkState.chunksInFlight];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = ByteBuffer.allocateDirect(benchmarkState.batchCapacity());
+            }
+            maxCount = benchmarkState.maxBatchCount();
+        }
+
+        @TearDown
+        public void tearDown() {
+            executor.shutdownNow();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CursorState {
+        NativeIteratorCursor cursor;
+
+        @Setup
+        public void setup(final BenchmarkState benchmarkState) {
+            cursor = new NativeIteratorCursor(benchmarkState.batchCapacity());
+        }
+    }
+
+    /**
+     * The elements of an iterator exported once to a file, and mapped once, for the iterateMapped* benchmarks to scan.
+     */
+    @State(Scope.Thread)
+    public static class SnapshotState {
+        Path path;
+        long size;
+        MappedSnapshot snapshot;
+
+        @Setup(Level.Trial)
+        public void setup(final BenchmarkState benchmarkState) throws IOException {
+            path = Files.createTempFile("iterator", ".snapshot");
+            try (NativeIterator iterator = benchmarkState.newIterator()) {
+                size = iterator.exportSnapshot(path);
+            }
+            snapshot = MappedSnapshot.open(path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            snapshot = null;
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * The growth in resident set size from creating an iterator, read from /proc/self/status, so it is 0 other than on Linux.
+     * It is measured once per trial, before malloc has freed memory it could reuse. JMH resets the counter
+     * for each iteration and then sums it over the measurement iterations, so each reports its share.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class FootprintCounters {
+        public long residentBytes;
+        private long measuredResidentBytes;
+
+        @Setup(Level.Trial)
+        public void setup(final BenchmarkState benchmarkState, final BenchmarkParams benchmarkParams)
+                throws IOException {
+            final long before = readResidentBytes();
+            try (NativeIterator iterator = benchmarkState.newIterator()) {
+                measuredResidentBytes = (readResidentBytes() - before) / benchmarkParams.getMeasurement().getCount();
+            }
+        }
+
+        private static long readResidentBytes() throws IOException {
+            final Path status = Paths.get("/proc/self/status");
+            if (!Files.exists(status)) {
+                return 0;
+            }
+            for (final String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim()) * 1024;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * An iterator created once per trial, so that the seek*, iterateScan, iterateCursor, iterateBatch* and iterate*Stream
+     * benchmarks measure scanning it, not creating it.
+     */
+    @State(Scope.Thread)
+    public static class ScanState {
+        NativeIterator iterator;
+        int numElements;
+        int scanLength;
+
+        @Setup(Level.Trial)
+        public void setup(final BenchmarkState benchmarkState) {
+            iterator = benchmarkState.newIterator();
+            numElements = benchmarkState.numElements;
+            scanLength = benchmarkState.scanLength;
+        }
+
+        /**
+         * @return the iterator, bounded to and positioned before all of its elements
+         */
+        NativeIterator rewind() {
+            iterator.setUpperBound(numElements);
+            iterator.seek(0);
+            return iterator;
+        }
+
+        int randomOffset() {
+            return ThreadLocalRandom.current().nextInt(numElements);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            iterator.close();
+        }
+    }
+
+    /**
+     * Creates and disposes of an iterator, with its resident size as a secondary result.
+     */
+    @Benchmark
+    public void construct(BenchmarkState benchmarkState, FootprintCounters footprintCounters, Blackhole blackhole) {
+        try (NativeIterator iterator = benchmarkState.newIterator()) {
+            blackhole.consume(iterator.end());
+        }
+        footprintCounters.residentBytes = footprintCounters.measuredResidentBytes;
+    }
+
+    /**
+     * A short forward scan of scanLength elements from a random offset, bounded natively.
+     */
+    @Benchmark
+    public void seekScan(ScanState scanState, Blackhole blackhole) {
+        final NativeIterator iterator = scanState.iterator;
+        final int offset = scanState.randomOffset();
+        iterator.setUpperBound(offset + scanState.scanLength);
+        iterator.seek(offset);
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    /**
+     * As seekScan, but the range is read through a cursor, so in a single batch.
+     */
+    @Benchmark
+    public void seekScanCursor(ScanState scanState, CursorState cursorState, Blackhole blackhole) {
+        final NativeIterator iterator = scanState.iterator;
+        final NativeIteratorCursor cursor = cursorState.cursor;
+        final int offset = scanState.randomOffset();
+        iterator.setUpperBound(offset + scanState.scanLength);
+        iterator.seek(offset);
+        cursor.reset(iterator);
+        while (cursor.advance()) {
+            final ByteBuffer value = cursor.value();
+            blackhole.consume(cursor.key());
+            blackhole.consume(value.get(value.position()));
+        }
+    }
+
+    /**
+     * A short reverse scan of up to scanLength elements back from a random offset.
+     */
+    @Benchmark
+    public void seekForPrevScan(ScanState scanState, Blackhole blackhole) {
+        final NativeIterator iterator = scanState.iterator;
+        iterator.seekForPrev(scanState.randomOffset());
+        for (int i = 0; i < scanState.scanLength && iterator.hasPrev(); i++) {
+            blackhole.consume(iterator.prev());
+        }
     }
 
     @Benchmark
     public void iterate(BenchmarkState benchmarkState, Blackhole blackhole) {
-        try (NativeIterator iterator = new NativeIterator(benchmarkState.numElements, benchmarkState.elementSize)) {
+        try (NativeIterator iterator = benchmarkState.newIterator()) {
             while (iterator.hasNext()) {
                 blackhole.consume(iterator.next());
             }
         }
     }
+
+    /**
+     * As iterate, but over an iterator created once per trial, so that it measures the scan alone,
+     * like the cursor, mapped and batch benchmarks it is compared with.
+     */
+    @Benchmark
+    public void iterateScan(ScanState scanState, Blackhole blackhole) {
+        final NativeIterator iterator = scanState.rewind();
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    /**
+     * As iterateScan, but through a reused cursor, so no array is allocated per element.
+     */
+    @Benchmark
+    public void iterateCursor(ScanState scanState, CursorState cursorState, Blackhole blackhole) {
+        final NativeIteratorCursor cursor = cursorState.cursor;
+        cursor.reset(scanState.rewind());
+        while (cursor.advance()) {
+            final ByteBuffer value = cursor.value();
+            blackhole.consume(cursor.key());
+            blackhole.consume(value.get(value.position()));
+        }
+    }
+
+    /**
+     * As iterateCursor, but over a memory mapped snapshot, so there is no native call per element or batch.
+     */
+    @Benchmark
+    public void iterateMappedSnapshot(SnapshotState snapshotState, Blackhole blackhole) {
+        final MappedSnapshot snapshot = snapshotState.snapshot;
+        snapshot.rewind();
+        while (snapshot.advance()) {
+            final ByteBuffer value = snapshot.value();
+            blackhole.consume(snapshot.key());
+            blackhole.consume(value.get(value.position()));
+        }
+    }
+
+    /**
+     * Each element is consumed in place, by its first byte, rather than copied out.
+     */
+    @Benchmark
+    public void iterateBatchDirectByteBuffer(BenchmarkState benchmarkState, ScanState scanState, BatchState batchState,
+                                             Blackhole blackhole) {
+        final NativeIterator iterator = scanState.rewind();
+        final ByteBuffer buffer = batchState.directBuffer;
+        final int[] lengths = batchState.lengths;
+        int count;
+        buffer.clear();
+        while ((count = iterator.nextBatch(buffer, lengths)) > 0) {
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                blackhole.consume(buffer.get(offset));
+                Blackhole.consumeCPU(benchmarkState.consumeTokens);
+                offset += lengths[i];
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * As iterateBatchDirectByteBuffer, but the chunks are filled on another thread while the previous ones are consumed.
+     * The filling thread scans its own range over the elements of the trial's iterator.
+     */
+    @Benchmark
+    public void iteratePrefetching(BenchmarkState benchmarkState, ScanState scanState, PrefetchState prefetchState,
+                                   Blackhole blackhole) {
+        try (NativeIterator iterator = scanState.iterator.range(0, scanState.numElements);
+             PrefetchingNativeIterator prefetching = new PrefetchingNativeIterator(iterator, prefetchState.buffers,
+                     prefetchState.maxCount, prefetchState.executor)) {
+            PrefetchingNativeIterator.Chunk chunk;
+            while ((chunk = prefetching.nextChunk()) != null) {
+                final ByteBuffer buffer = chunk.buffer;
+                final int[] lengths = chunk.lengths;
+                int offset = 0;
+                for (int i = 0; i < chunk.count; i++) {
+                    blackhole.consume(buffer.get(offset));
+                    Blackhole.consumeCPU(benchmarkState.consumeTokens);
+                    offset += lengths[i];
+                }
+                prefetching.release(chunk);
+            }
+        }
+    }
+
+    /**
+     * Sums the first byte of each element, after consumeTokens of work on it.
+     */
+    @Benchmark
+    public long iterateStream(BenchmarkState benchmarkState, ScanState scanState) {
+        return sumStream(benchmarkState, scanState, false);
+    }
+
+    /**
+     * As iterateStream, but the element range is split across the fork-join common pool.
+     */
+    @Benchmark
+    public long iterateParallelStream(BenchmarkState benchmarkState, ScanState scanState) {
+        return sumStream(benchmarkState, scanState, true);
+    }
+
+    private static long sumStream(final BenchmarkState benchmarkState, final ScanState scanState,
+                                  final boolean parallel) {
+        final long consumeTokens = benchmarkState.consumeTokens;
+        try (Stream<ByteBuffer> elements = scanState.rewind().stream(parallel)) {
+            return elements.mapToLong(element -> {
+                Blackhole.consumeCPU(consumeTokens);
+                return element.get(element.position());
+            }).sum();
+        }
+    }
+
+    @Benchmark
+    public void iterateBatchUnsafe(ScanState scanState, BatchState batchState, Blackhole blackhole) {
+        final NativeIterator iterator = scanState.rewind();
+        final long address = batchState.unsafeAddress;
+        final int[] lengths = batchState.lengths;
+        int count;
+        while ((count = iterator.nextBatch(address, batchState.capacity, lengths)) > 0) {
+            long offset = 0;
+            for (int i = 0; i < count; i++) {
+                blackhole.consume(unsafe.getByte(address + offset));
+                offset += lengths[i];
+            }
+        }
+    }
 }
@@ -0,0 +1,245 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench;
+
+import com.evolvedbinary.jnibench.common.getputjni.GetPutJNI;
+import com.evolvedbinary.jnibench.consbench.NarSystem;
+import com.evolvedbinary.jnibench.jmhbench.cache.AllocationCache;
+import com.evolvedbinary.jnibench.jmhbench.cache.SlabAllocationCache;
+import com.evolvedbinary.jnibench.jmhbench.cache.UnsafeBufferCache;
+import com.evolvedbinary.jnibench.jmhbench.common.JMHCaller;
+import com.evolvedbinary.jnibench.jmhbench.common.ValueSizeDistribution;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark getting values of mixed sizes from native methods,
+ * either into a cache of buffers for each value size, or into slices of a single {@link SlabAllocationCache}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 20, time = 100, timeUnit = TimeUnit.NANOSECONDS)
+@Measurement(iterations = 200, time = 1000, timeUnit = TimeUnit.NANOSECONDS)
+public class MixedSizeGetJNIBenchmark {
+
+  private static final Logger LOG = Logger.getLogger(MixedSizeGetJNIBenchmark.class.getName());
+
+  // how many draws from the size distribution each thread cycles through
+  private static final int SAMPLES = 4096;
+
+  static {
+    NarSystem.loadLibrary();
+  }
+
+  @State(Scope.Benchmark)
+  public static class MixedSizeGetJNIBenchmarkState {
+
+    /**
+     * size:weight pairs, the sizes must be those of the values in the mock db.
+     */
+    @Param({
+        "10:1 50:1 512:1 1024:1 4096:1 16384:1 32768:1 65536:1 131072:1 262144:1",
+        "10:32 50:32 512:16 1024:8 4096:4 16384:2 65536:1"})
+    String sizeDistribution;
+    ValueSizeDistribution distribution;
+
+    @Param({"16"})
+    int cacheMB;
+    final static int MB = 1024 * 1024;
+    @Param({"1024"})
+    int cacheEntryOverhead;
+
+    @Param({"none", "copyout"})
+    String checksum;
+    AllocationCache.Checksum readChecksum;
+
+    // the key and size of each value in the distribution
+    byte[][] keys;
+    int[] valueSizes;
+
+    JMHCaller caller;
+
+    @Setup
+    public void setup() {
+      this.caller = JMHCaller.fromStack();
+      distribution = ValueSizeDistribution.parse(sizeDistribution);
+      readChecksum = AllocationCache.Checksum.valueOf(checksum);
+
+      valueSizes = distribution.sizes();
+      keys = new byte[valueSizes.length][];
+      for (int i = 0; i < valueSizes.length; i++) {
+        keys[i] = ("testKeyWithReturnValueSize" + String.format("%07d", valueSizes[i]) + "Bytes").getBytes();
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class MixedSizeGetJNIThreadState {
+
+    private UnsafeBufferCache[] sizeCaches;
+    private final SlabAllocationCache slabAllocationCache = new SlabAllocationCache();
+
+    int cacheSize;
+    long footprint;
+    int[] samples;
+    int next;
+
+    @Setup
+    public void setup(MixedSizeGetJNIBenchmarkState benchmarkState, Blackhole blackhole) {
+      cacheSize = benchmarkState.cacheMB * MixedSizeGetJNIBenchmarkState.MB;
+      samples = benchmarkState.distribution.sample(SAMPLES, 42);
+      next = 0;
+
+      switch (benchmarkState.caller.benchmarkMethod) {
+        case "getIntoUnsafeSizeCaches":
+          // an equal share of the cache for each value size
+          final int[] valueSizes = benchmarkState.valueSizes;
+          final int cacheShare = cacheSize / valueSizes.length;
+          sizeCaches = new UnsafeBufferCache[valueSizes.length];
+          footprint = 0;
+          for (int i = 0; i < valueSizes.length; i++) {
+            sizeCaches[i] = new UnsafeBufferCache();
+            sizeCaches[i].setup(valueSizes[i], benchmarkState.cacheEntryOverhead, cacheShare,
+                                benchmarkState.readChecksum, blackhole);
+            for (int total = 0; total < cacheShare; total += valueSizes[i] + benchmarkState.cacheEntryOverhead) {
+              footprint += valueSizes[i];
+            }
+          }
+          break;
+        case "getIntoUnsafeSlab":
+          slabAllocationCache.setup(cacheSize, benchmarkState.readChecksum, blackhole);
+          footprint = slabAllocationCache.footprint();
+          break;
+        default:
+          throw new RuntimeException(
+              "Don't know how to setup() for benchmark: " + benchmarkState.caller.benchmarkMethod);
+      }
+    }
+
+    @TearDown
+    public void tearDown(MixedSizeGetJNIBenchmarkState benchmarkState) {
+
+      switch (benchmarkState.caller.benchmarkMethod) {
+        case "getIntoUnsafeSizeCaches":
+          LOG.info(String.format("%s: %d size caches, off-heap footprint %d bytes",
+                                 benchmarkState.caller.benchmarkMethod, sizeCaches.length, footprint));
+          for (UnsafeBufferCache sizeCache : sizeCaches) {
+            sizeCache.tearDown();
+          }
+          sizeCaches = null;
+          break;
+        case "getIntoUnsafeSlab":
+          LOG.info(String.format("%s: off-heap footprint %d bytes, internal fragmentation %.1f%%",
+                                 benchmarkState.caller.benchmarkMethod, footprint,
+                                 slabAllocationCache.internalFragmentation() * 100));
+          slabAllocationCache.tearDown();
+          break;
+        default:
+          throw new RuntimeException(
+              "Don't know how to tearDown() for benchmark: " + benchmarkState.caller.benchmarkMethod);
+      }
+    }
+
+    int nextSample() {
+      final int sample = samples[next];
+      next = (next + 1) % samples.length;
+      return sample;
+    }
+  }
+
+  /**
+   * Baseline: a separate cache of buffers for each value size.
+   */
+  @Benchmark
+  public void getIntoUnsafeSizeCaches(MixedSizeGetJNIBenchmarkState benchmarkState,
+                                      MixedSizeGetJNIThreadState threadState, Blackhole blackhole) {
+    final int sample = threadState.nextSample();
+    final UnsafeBufferCache sizeCache = threadState.sizeCaches[sample];
+    UnsafeBufferCache.UnsafeBuffer unsafeBuffer = sizeCache.acquire();
+    int size = GetPutJNI.getIntoUnsafe(benchmarkState.keys[sample], 0, benchmarkState.keys[sample].length,
+                                       unsafeBuffer.handle, benchmarkState.valueSizes[sample]);
+    blackhole.consume(size);
+    sizeCache.checksumBuffer(unsafeBuffer);
+    sizeCache.release(unsafeBuffer);
+  }
+
+  @Benchmark
+  public void getIntoUnsafeSlab(MixedSizeGetJNIBenchmarkState benchmarkState, MixedSizeGetJNIThreadState threadState,
+                                Blackhole blackhole) {
+    final int sample = threadState.nextSample();
+    UnsafeBufferCache.UnsafeBuffer unsafeBuffer = threadState.slabAllocationCache.acquire(
+        benchmarkState.valueSizes[sample]);
+    int size = GetPutJNI.getIntoUnsafe(benchmarkState.keys[sample], 0, benchmarkState.keys[sample].length,
+                                       unsafeBuffer.handle, benchmarkState.valueSizes[sample]);
+    blackhole.consume(size);
+    threadState.slabAllocationCache.checksumBuffer(unsafeBuffer);
+    threadState.slabAllocationCache.release(unsafeBuffer);
+  }
+
+  /**
+   * Run from the IDE
+   * <p>
+   * See {@link GetJNIBenchmark#main(String[])}
+   * SO DON'T TRUST THE NUMBERS GENERATED BY THIS RUN
+   *
+   * @param args
+   * @throws RunnerException
+   */
+  public static void main(String[] args) throws RunnerException {
+    SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy.MM.dd_HH:mm:ss.SSS");
+    Options opt = new OptionsBuilder()
+        .forks(0)
+        .param("checksum", "none", "copyout")
+        .param("cacheMB", "16")
+        .warmupIterations(10)
+        .measurementIterations(50)
+        .include(MixedSizeGetJNIBenchmark.class.getSimpleName())
+        .result("analysis/testplots/" + simpleDateFormat.format(
+            new Date()) + "_" + MixedSizeGetJNIBenchmark.class.getSimpleName() + ".csv")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
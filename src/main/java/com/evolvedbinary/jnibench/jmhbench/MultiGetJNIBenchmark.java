@@ -0,0 +1,279 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench;
+
+import com.evolvedbinary.jnibench.common.getputjni.GetPutJNI;
+import com.evolvedbinary.jnibench.consbench.NarSystem;
+import com.evolvedbinary.jnibench.jmhbench.cache.AllocationCache;
+import com.evolvedbinary.jnibench.jmhbench.cache.DirectByteBufferCache;
+import com.evolvedbinary.jnibench.jmhbench.cache.UnsafeBufferCache;
+import com.evolvedbinary.jnibench.jmhbench.common.JMHCaller;
+import java.nio.ByteBuffer;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmark getting a batch of values from native methods,
+ * either with one JNI call per key, or with a single JNI call for the whole batch.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 20, time = 100, timeUnit = TimeUnit.NANOSECONDS)
+@Measurement(iterations = 200, time = 1000, timeUnit = TimeUnit.NANOSECONDS)
+public class MultiGetJNIBenchmark {
+
+  static {
+    NarSystem.loadLibrary();
+  }
+
+  @State(Scope.Benchmark)
+  public static class MultiGetJNIBenchmarkState {
+
+    @Param({
+        "10",
+        "50",
+        "128",
+        "512",
+        "1024",
+        "4096",
+        "8192",
+        "16384",
+        "32768",
+        "65536",
+        "131072"})
+    int valueSize;
+
+    @Param({"1", "4", "16", "64", "256"})
+    int batchSize;
+
+    @Param({"4", "16"})
+    int cacheMB;
+    final static int MB = 1024 * 1024;
+    @Param({"1024"})
+    int cacheEntryOverhead;
+
+    @Param({"none", "copyout", "bytesum", "longsum"})
+    String checksum;
+    AllocationCache.Checksum readChecksum;
+
+    String keyBase;
+    byte[] keyBytes;
+
+    byte[][] keys;
+    int[] keyOffsets;
+    int[] keyLengths;
+
+    JMHCaller caller;
+
+    protected final JMHCaller getCaller() {
+      return caller;
+    }
+
+    @Setup
+    public void setup() {
+      this.caller = JMHCaller.fromStack();
+      keyBase = "testKeyWithReturnValueSize" + String.format("%07d", valueSize) + "Bytes";
+
+      keyBytes = keyBase.getBytes();
+      readChecksum = AllocationCache.Checksum.valueOf(checksum);
+
+      // the mock db holds a single key for each value size, so every key in the batch is the same
+      keys = new byte[batchSize][];
+      Arrays.fill(keys, keyBytes);
+      keyOffsets = new int[batchSize];
+      keyLengths = new int[batchSize];
+      Arrays.fill(keyLengths, keyBytes.length);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class MultiGetJNIThreadState {
+
+    private final DirectByteBufferCache directByteBufferCache = new DirectByteBufferCache();
+    private final UnsafeBufferCache unsafeBufferCache = new UnsafeBufferCache();
+
+    int valueSize;
+    int batchValueSize;
+    int cacheSize;
+    int[] valueLengths;
+
+    @Setup
+    public void setup(MultiGetJNIBenchmarkState benchmarkState, Blackhole blackhole) {
+      valueSize = benchmarkState.valueSize;
+      batchValueSize = benchmarkState.batchSize * benchmarkState.valueSize;
+      cacheSize = benchmarkState.cacheMB * MultiGetJNIBenchmarkState.MB;
+      valueLengths = new int[benchmarkState.batchSize];
+
+      switch (benchmarkState.caller.benchmarkMethod) {
+        case "getIntoDirectByteBufferLoop":
+          directByteBufferCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
+                                      benchmarkState.readChecksum, blackhole);
+          break;
+        case "multiGetIntoDirectByteBuffer":
+          directByteBufferCache.setup(batchValueSize, benchmarkState.cacheEntryOverhead, cacheSize,
+                                      benchmarkState.readChecksum, blackhole);
+          break;
+        case "getIntoUnsafeLoop":
+          unsafeBufferCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
+                                  benchmarkState.readChecksum, blackhole);
+          break;
+        case "multiGetIntoUnsafe":
+          unsafeBufferCache.setup(batchValueSize, benchmarkState.cacheEntryOverhead, cacheSize,
+                                  benchmarkState.readChecksum, blackhole);
+          break;
+        default:
+          throw new RuntimeException(
+              "Don't know how to setup() for benchmark: " + benchmarkState.caller.benchmarkMethod);
+      }
+    }
+
+    @TearDown
+    public void tearDown(MultiGetJNIBenchmarkState benchmarkState) {
+
+      switch (benchmarkState.caller.benchmarkMethod) {
+        case "getIntoDirectByteBufferLoop":
+        case "multiGetIntoDirectByteBuffer":
+          directByteBufferCache.tearDown();
+          break;
+        case "getIntoUnsafeLoop":
+        case "multiGetIntoUnsafe":
+          unsafeBufferCache.tearDown();
+          break;
+        default:
+          throw new RuntimeException(
+              "Don't know how to tearDown() for benchmark: " + benchmarkState.caller.benchmarkMethod);
+      }
+    }
+
+    int[] resetValueLengths() {
+      Arrays.fill(valueLengths, valueSize);
+      return valueLengths;
+    }
+  }
+
+  /**
+   * Baseline: one JNI call per key, as a client of {@link GetJNIBenchmark#getIntoDirectByteBuffer} would do.
+   */
+  @Benchmark
+  public void getIntoDirectByteBufferLoop(MultiGetJNIBenchmarkState benchmarkState, MultiGetJNIThreadState threadState,
+                                          Blackhole blackhole) {
+    for (int i = 0; i < benchmarkState.batchSize; i++) {
+      ByteBuffer byteBuffer = threadState.directByteBufferCache.acquire();
+      byteBuffer.clear();
+      GetPutJNI.getIntoDirectByteBuffer(benchmarkState.keys[i], benchmarkState.keyOffsets[i],
+                                        benchmarkState.keyLengths[i], byteBuffer, benchmarkState.valueSize);
+      threadState.directByteBufferCache.checksumBuffer(byteBuffer);
+      threadState.directByteBufferCache.release(byteBuffer);
+    }
+  }
+
+  @Benchmark
+  public void multiGetIntoDirectByteBuffer(MultiGetJNIBenchmarkState benchmarkState,
+                                           MultiGetJNIThreadState threadState, Blackhole blackhole) {
+    ByteBuffer byteBuffer = threadState.directByteBufferCache.acquire();
+    byteBuffer.clear();
+    int count = GetPutJNI.multiGetIntoDirectByteBuffer(benchmarkState.keys, benchmarkState.keyOffsets,
+                                                       benchmarkState.keyLengths, byteBuffer,
+                                                       threadState.resetValueLengths());
+    blackhole.consume(count);
+    threadState.directByteBufferCache.checksumBuffer(byteBuffer);
+    threadState.directByteBufferCache.release(byteBuffer);
+  }
+
+  /**
+   * Baseline: one JNI call per key, as a client of {@link GetJNIBenchmark#getIntoUnsafe} would do.
+   */
+  @Benchmark
+  public void getIntoUnsafeLoop(MultiGetJNIBenchmarkState benchmarkState, MultiGetJNIThreadState threadState,
+                                Blackhole blackhole) {
+    for (int i = 0; i < benchmarkState.batchSize; i++) {
+      UnsafeBufferCache.UnsafeBuffer unsafeBuffer = threadState.unsafeBufferCache.acquire();
+      int size = GetPutJNI.getIntoUnsafe(benchmarkState.keys[i], benchmarkState.keyOffsets[i],
+                                         benchmarkState.keyLengths[i], unsafeBuffer.handle, benchmarkState.valueSize);
+      blackhole.consume(size);
+      threadState.unsafeBufferCache.checksumBuffer(unsafeBuffer);
+      threadState.unsafeBufferCache.release(unsafeBuffer);
+    }
+  }
+
+  @Benchmark
+  public void multiGetIntoUnsafe(MultiGetJNIBenchmarkState benchmarkState, MultiGetJNIThreadState threadState,
+                                 Blackhole blackhole) {
+    UnsafeBufferCache.UnsafeBuffer unsafeBuffer = threadState.unsafeBufferCache.acquire();
+    int count = GetPutJNI.multiGetIntoUnsafe(benchmarkState.keys, benchmarkState.keyOffsets,
+                                             benchmarkState.keyLengths, unsafeBuffer.handle,
+                                             threadState.resetValueLengths());
+    blackhole.consume(count);
+    threadState.unsafeBufferCache.checksumBuffer(unsafeBuffer);
+    threadState.unsafeBufferCache.release(unsafeBuffer);
+  }
+
+  /**
+   * Run from the IDE
+   * <p>
+   * See {@link GetJNIBenchmark#main(String[])}
+   * SO DON'T TRUST THE NUMBERS GENERATED BY THIS RUN
+   *
+   * @param args
+   * @throws RunnerException
+   */
+  public static void main(String[] args) throws RunnerException {
+    SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy.MM.dd_HH:mm:ss.SSS");
+    Options opt = new OptionsBuilder()
+        .forks(0)
+        .param("checksum", "none", "copyout")
+        .param("valueSize", "50", "4096", "65536")
+        .param("batchSize", "1", "16", "256")
+        .param("cacheMB", "4")
+        .warmupIterations(10)
+        .measurementIterations(50)
+        .include(MultiGetJNIBenchmark.class.getSimpleName())
+        .result("analysis/testplots/" + simpleDateFormat.format(
+            new Date()) + "_" + MultiGetJNIBenchmark.class.getSimpleName() + ".csv")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -26,7 +26,9 @@
  */
 package com.evolvedbinary.jnibench.jmhbench;
 
+import com.evolvedbinary.jnibench.common.bytearray.KeyScratch;
 import com.evolvedbinary.jnibench.common.getputjni.GetPutJNI;
+import com.evolvedbinary.jnibench.common.getputjni.WriteBatch;
 import com.evolvedbinary.jnibench.consbench.NarSystem;
 import com.evolvedbinary.jnibench.jmhbench.cache.AllocationCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.ByteArrayCache;
@@ -35,6 +37,8 @@ import com.evolvedbinary.jnibench.jmhbench.cache.IndirectByteBufferCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.NettyByteBufCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.UnsafeBufferCache;
 import com.evolvedbinary.jnibench.jmhbench.common.JMHCaller;
+import com.evolvedbinary.jnibench.jmhbench.common.KeyWorkload;
+import com.evolvedbinary.jnibench.jmhbench.common.ValueSizeCounters;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.PooledByteBufAllocator;
 import java.nio.ByteBuffer;
@@ -106,6 +110,41 @@ public class PutJNIBenchmark {
     @Param({"17"})
     byte fillByte;
 
+    /**
+     * Number of puts in each batch, only used by the putBatch* benchmarks.
+     */
+    @Param({"16"})
+    int batchSize;
+
+    /**
+     * Stage keys in a per-thread native scratch buffer, rather than allocating for each call.
+     */
+    @Param({"false"})
+    boolean keyScratch;
+
+    /**
+     * How each put chooses its key: fixed always puts to the key of valueSize;
+     * uniform and zipfian draw from numKeys keys, generated in the mock db with key lengths drawn from
+     * keySizeDistribution and value sizes drawn from valueSizeDistribution,
+     * and in the Throughput and AverageTime modes (e.g. -bm thrpt) the puts of each value size are reported
+     * as secondary results, see {@link ValueSizeCounters}.
+     * Buffers are then sized for the largest value. Not used by the putBatch* benchmarks or their baseline.
+     */
+    @Param({"fixed"})
+    String keyDistribution;
+    @Param({"4096"})
+    int numKeys;
+    /**
+     * size:weight pairs, or @path of a histogram file, see {@link com.evolvedbinary.jnibench.jmhbench.common.ValueSizeDistribution}
+     */
+    @Param({"38:1"})
+    String keySizeDistribution;
+    @Param({"10:1 50:1 512:1 1024:1 4096:1 16384:1 65536:1"})
+    String valueSizeDistribution;
+    @Param({"0.99"})
+    double zipfExponent;
+    KeyWorkload workload;
+
     String keyBase;
     byte[] keyBytes;
 
@@ -124,6 +163,14 @@ public class PutJNIBenchmark {
       keyBytes = keyBase.getBytes();
 
       writePreparation = AllocationCache.Prepare.valueOf(preparation);
+
+      workload = KeyWorkload.create(KeyWorkload.KeyDistribution.valueOf(keyDistribution), keyBytes, valueSize,
+                                    numKeys, keySizeDistribution, valueSizeDistribution, zipfExponent, 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+      workload.clear();
     }
   }
 
@@ -136,44 +183,69 @@ public class PutJNIBenchmark {
     private final IndirectByteBufferCache indirectByteBufferCache = new IndirectByteBufferCache();
     private final PooledByteBufAllocator pooledByteBufAllocator = PooledByteBufAllocator.DEFAULT;
     private final NettyByteBufCache nettyByteBufCache = new NettyByteBufCache();
+    private WriteBatch writeBatch;
+    private KeyScratch keyScratch;
+    private KeyWorkload.Cursor cursor;
 
     int valueSize;
     int cacheSize;
 
     @Setup
-    public void setup(PutJNIBenchmarkState benchmarkState, Blackhole blackhole) {
-      valueSize = benchmarkState.valueSize;
+    public void setup(PutJNIBenchmarkState benchmarkState, ValueSizeCounters valueSizeCounters,
+                      Blackhole blackhole) {
+      //the putBatch* benchmarks and their baseline always put values of valueSize
+      valueSize = Math.max(benchmarkState.valueSize, benchmarkState.workload.maxValueSize());
       cacheSize = benchmarkState.cacheMB * PutJNIBenchmarkState.MB;
+      cursor = benchmarkState.workload.cursor(valueSizeCounters);
+
+      if (benchmarkState.keyScratch) {
+        keyScratch = new KeyScratch(benchmarkState.workload.maxKeyLength());
+        keyScratch.register();
+      }
 
       switch (benchmarkState.caller.benchmarkMethod) {
         case "putFromPooledNettyByteBuf":
           break;
         case "putFromNettyByteBuf":
-          nettyByteBufCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead,
+          nettyByteBufCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
                                   benchmarkState.writePreparation, blackhole);
           break;
         case "putFromDirectByteBuffer":
-          directByteBufferCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead,
+          directByteBufferCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
                                       benchmarkState.writePreparation, blackhole);
           break;
         case "putFromIndirectByteBufferGetRegion":
         case "putFromIndirectByteBufferGetElements":
         case "putFromIndirectByteBufferGetCritical":
-          indirectByteBufferCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead,
+          indirectByteBufferCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
                                         benchmarkState.writePreparation, blackhole);
           break;
         case "putFromDirectByteBufferFromUnsafe":
         case "buffersOnlyDirectByteBufferFromUnsafe":
         case "putFromUnsafe":
-          unsafeBufferCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead,
+          unsafeBufferCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
                                   benchmarkState.writePreparation, blackhole);
           break;
         case "putFromByteArrayGetRegion":
         case "putFromByteArrayGetElements":
         case "putFromByteArrayCritical":
-          byteArrayCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead, benchmarkState.writePreparation,
+          byteArrayCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize, benchmarkState.writePreparation,
                                blackhole);
           break;
+        case "putFromDirectByteBufferLoop":
+          directByteBufferCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
+                                      benchmarkState.writePreparation, blackhole);
+          break;
+        case "putBatchFromDirectByteBuffer":
+          directByteBufferCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
+                                      benchmarkState.writePreparation, blackhole);
+          writeBatch = newWriteBatch(benchmarkState);
+          break;
+        case "putBatchFromByteArray":
+          byteArrayCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
+                               benchmarkState.writePreparation, blackhole);
+          writeBatch = newWriteBatch(benchmarkState);
+          break;
         default:
           throw new RuntimeException(
               "Don't know how to setup() for benchmark: " + benchmarkState.caller.benchmarkMethod);
@@ -183,6 +255,12 @@ public class PutJNIBenchmark {
     @TearDown
     public void tearDown(PutJNIBenchmarkState benchmarkState) {
 
+
+      if (keyScratch != null) {
+        keyScratch.close();
+        keyScratch = null;
+      }
+
       switch (benchmarkState.caller.benchmarkMethod) {
         case "putFromPooledNettyByteBuf":
           break;
@@ -207,11 +285,27 @@ public class PutJNIBenchmark {
         case "putFromByteArrayCritical":
           byteArrayCache.tearDown();
           break;
+        case "putFromDirectByteBufferLoop":
+          directByteBufferCache.tearDown();
+          break;
+        case "putBatchFromDirectByteBuffer":
+          directByteBufferCache.tearDown();
+          writeBatch = null;
+          break;
+        case "putBatchFromByteArray":
+          byteArrayCache.tearDown();
+          writeBatch = null;
+          break;
         default:
           throw new RuntimeException(
               "Don't know how to tearDown() for benchmark: " + benchmarkState.caller.benchmarkMethod);
       }
     }
+
+    private static WriteBatch newWriteBatch(PutJNIBenchmarkState benchmarkState) {
+      final int recordSize = WriteBatch.recordSize(benchmarkState.keyBytes.length, benchmarkState.valueSize);
+      return new WriteBatch(ByteBuffer.allocateDirect(benchmarkState.batchSize * recordSize));
+    }
   }
 
   //@Benchmark
@@ -223,27 +317,31 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromDirectByteBuffer(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                       Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuffer byteBuffer = threadState.directByteBufferCache.acquire();
     byteBuffer.clear();
     threadState.directByteBufferCache.prepareBuffer(byteBuffer, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromDirectByteBuffer(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, byteBuffer,
-                                                 benchmarkState.valueSize);
+    int size = GetPutJNI.putFromDirectByteBuffer(cursor.key, 0, cursor.key.length, byteBuffer,
+                                                 cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.directByteBufferCache.release(byteBuffer);
   }
 
   @Benchmark
   public void putFromUnsafe(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState, Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     UnsafeBufferCache.UnsafeBuffer unsafeBuffer = threadState.unsafeBufferCache.acquire();
     threadState.unsafeBufferCache.prepareBuffer(unsafeBuffer, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromUnsafe(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, unsafeBuffer.handle,
-                                       benchmarkState.valueSize);
+    int size = GetPutJNI.putFromUnsafe(cursor.key, 0, cursor.key.length, unsafeBuffer.handle,
+                                       cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.unsafeBufferCache.release(unsafeBuffer);
   }
@@ -251,14 +349,16 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromPooledNettyByteBuf(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                         Blackhole blackhole) {
-    ByteBuf byteBuf = threadState.pooledByteBufAllocator.directBuffer(benchmarkState.valueSize);
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
+    ByteBuf byteBuf = threadState.pooledByteBufAllocator.directBuffer(cursor.valueSize);
     //TODO prepareBuffer operation - we can use this for the "none" checksum in the meantime.
 
-    int size = GetPutJNI.putFromUnsafe(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length,
-                                       byteBuf.memoryAddress(), benchmarkState.valueSize);
+    int size = GetPutJNI.putFromUnsafe(cursor.key, 0, cursor.key.length,
+                                       byteBuf.memoryAddress(), cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     // Allocated buffer already has retain count of 1
     byteBuf.release();
@@ -267,13 +367,15 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromNettyByteBuf(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                   Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuf byteBuf = threadState.nettyByteBufCache.acquire();
     threadState.nettyByteBufCache.prepareBuffer(byteBuf, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromUnsafe(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length,
-                                       byteBuf.memoryAddress(), benchmarkState.valueSize);
+    int size = GetPutJNI.putFromUnsafe(cursor.key, 0, cursor.key.length,
+                                       byteBuf.memoryAddress(), cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.nettyByteBufCache.release(byteBuf);
   }
@@ -281,13 +383,15 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromByteArrayGetRegion(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                         Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     byte[] array = threadState.byteArrayCache.acquire();
     threadState.byteArrayCache.prepareBuffer(array, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromByteArrayGetRegion(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, array,
-                                                   benchmarkState.valueSize);
+    int size = GetPutJNI.putFromByteArrayGetRegion(cursor.key, 0, cursor.key.length, array,
+                                                   cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.byteArrayCache.release(array);
   }
@@ -295,13 +399,15 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromByteArrayGetElements(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                           Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     byte[] array = threadState.byteArrayCache.acquire();
     threadState.byteArrayCache.prepareBuffer(array, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromByteArrayGetElements(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, array,
-                                                     benchmarkState.valueSize);
+    int size = GetPutJNI.putFromByteArrayGetElements(cursor.key, 0, cursor.key.length, array,
+                                                     cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.byteArrayCache.release(array);
   }
@@ -309,13 +415,15 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromByteArrayCritical(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                        Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     byte[] array = threadState.byteArrayCache.acquire();
     threadState.byteArrayCache.prepareBuffer(array, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromByteArrayCritical(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, array,
-                                                  benchmarkState.valueSize);
+    int size = GetPutJNI.putFromByteArrayCritical(cursor.key, 0, cursor.key.length, array,
+                                                  cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.byteArrayCache.release(array);
   }
@@ -327,14 +435,16 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromIndirectByteBufferGetRegion(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                                  Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuffer byteBuffer = threadState.indirectByteBufferCache.acquire();
     byteBuffer.clear();
     threadState.indirectByteBufferCache.prepareBuffer(byteBuffer, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromIndirectByteBufferGetRegion(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length,
-                                                            byteBuffer, benchmarkState.valueSize);
+    int size = GetPutJNI.putFromIndirectByteBufferGetRegion(cursor.key, 0, cursor.key.length,
+                                                            byteBuffer, cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.indirectByteBufferCache.release(byteBuffer);
   }
@@ -342,15 +452,17 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromIndirectByteBufferGetElements(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                                    Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuffer byteBuffer = threadState.indirectByteBufferCache.acquire();
     byteBuffer.clear();
     threadState.indirectByteBufferCache.prepareBuffer(byteBuffer, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromIndirectByteBufferGetElements(benchmarkState.keyBytes, 0,
-                                                              benchmarkState.keyBytes.length, byteBuffer,
-                                                              benchmarkState.valueSize);
+    int size = GetPutJNI.putFromIndirectByteBufferGetElements(cursor.key, 0,
+                                                              cursor.key.length, byteBuffer,
+                                                              cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.indirectByteBufferCache.release(byteBuffer);
   }
@@ -358,19 +470,80 @@ public class PutJNIBenchmark {
   @Benchmark
   public void putFromIndirectByteBufferGetCritical(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
                                                    Blackhole blackhole) {
+    final KeyWorkload.Cursor cursor = threadState.cursor;
+    cursor.next();
     ByteBuffer byteBuffer = threadState.indirectByteBufferCache.acquire();
     byteBuffer.clear();
     threadState.indirectByteBufferCache.prepareBuffer(byteBuffer, benchmarkState.fillByte);
-    int size = GetPutJNI.putFromIndirectByteBufferGetCritical(benchmarkState.keyBytes, 0,
-                                                              benchmarkState.keyBytes.length, byteBuffer,
-                                                              benchmarkState.valueSize);
+    int size = GetPutJNI.putFromIndirectByteBufferGetCritical(cursor.key, 0,
+                                                              cursor.key.length, byteBuffer,
+                                                              cursor.valueSize);
     blackhole.consume(size);
-    if (size < benchmarkState.valueSize) {
-      throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+    if (size < cursor.valueSize) {
+      throw new RuntimeException("Put actual " + size + ", requested " + cursor.valueSize);
     }
     threadState.indirectByteBufferCache.release(byteBuffer);
   }
 
+  /**
+   * Baseline for the putBatch* benchmarks: one JNI call per put.
+   */
+  @Benchmark
+  public void putFromDirectByteBufferLoop(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
+                                          Blackhole blackhole) {
+    for (int i = 0; i < benchmarkState.batchSize; i++) {
+      ByteBuffer byteBuffer = threadState.directByteBufferCache.acquire();
+      byteBuffer.clear();
+      threadState.directByteBufferCache.prepareBuffer(byteBuffer, benchmarkState.fillByte);
+      int size = GetPutJNI.putFromDirectByteBuffer(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length,
+                                                   byteBuffer, benchmarkState.valueSize);
+      blackhole.consume(size);
+      if (size < benchmarkState.valueSize) {
+        throw new RuntimeException("Put actual " + size + ", requested " + benchmarkState.valueSize);
+      }
+      threadState.directByteBufferCache.release(byteBuffer);
+    }
+  }
+
+  @Benchmark
+  public void putBatchFromDirectByteBuffer(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
+                                           Blackhole blackhole) {
+    WriteBatch writeBatch = threadState.writeBatch;
+    writeBatch.clear();
+    for (int i = 0; i < benchmarkState.batchSize; i++) {
+      ByteBuffer byteBuffer = threadState.directByteBufferCache.acquire();
+      byteBuffer.clear();
+      threadState.directByteBufferCache.prepareBuffer(byteBuffer, benchmarkState.fillByte);
+      writeBatch.put(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, byteBuffer,
+                     benchmarkState.valueSize);
+      threadState.directByteBufferCache.release(byteBuffer);
+    }
+    int count = writeBatch.commit();
+    blackhole.consume(count);
+    if (count < benchmarkState.batchSize) {
+      throw new RuntimeException("Put batch actual " + count + ", requested " + benchmarkState.batchSize);
+    }
+  }
+
+  @Benchmark
+  public void putBatchFromByteArray(PutJNIBenchmarkState benchmarkState, PutJNIThreadState threadState,
+                                    Blackhole blackhole) {
+    WriteBatch writeBatch = threadState.writeBatch;
+    writeBatch.clear();
+    for (int i = 0; i < benchmarkState.batchSize; i++) {
+      byte[] array = threadState.byteArrayCache.acquire();
+      threadState.byteArrayCache.prepareBuffer(array, benchmarkState.fillByte);
+      writeBatch.put(benchmarkState.keyBytes, 0, benchmarkState.keyBytes.length, array, 0,
+                     benchmarkState.valueSize);
+      threadState.byteArrayCache.release(array);
+    }
+    int count = writeBatch.commit();
+    blackhole.consume(count);
+    if (count < benchmarkState.batchSize) {
+      throw new RuntimeException("Put batch actual " + count + ", requested " + benchmarkState.batchSize);
+    }
+  }
+
   //create/allocate the result buffers, analogous to the "into" methods (but no unsafe ones here)
   //TODO getReturnDirectByteBuffer
   //TODO getReturnIndirectByteBuffer
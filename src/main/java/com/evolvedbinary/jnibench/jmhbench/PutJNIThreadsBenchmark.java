@@ -0,0 +1,66 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * The put benchmarks at a fixed number of threads each,
+ * so that a single run can plot how each buffer strategy scales with core count.
+ * Every thread puts through its own caches, into the shared mock db.
+ *
+ * Run e.g. <code>PutJNIThreadsBenchmark.*putFromUnsafe$</code>, the thread count is in the Threads column of the results.
+ */
+public class PutJNIThreadsBenchmark {
+
+  @Threads(1)
+  public static class Threads1 extends PutJNIBenchmark {
+  }
+
+  @Threads(2)
+  public static class Threads2 extends PutJNIBenchmark {
+  }
+
+  @Threads(4)
+  public static class Threads4 extends PutJNIBenchmark {
+  }
+
+  @Threads(8)
+  public static class Threads8 extends PutJNIBenchmark {
+  }
+
+  @Threads(16)
+  public static class Threads16 extends PutJNIBenchmark {
+  }
+
+  /**
+   * As many threads as there are available processors.
+   */
+  @Threads(Threads.MAX)
+  public static class ThreadsMax extends PutJNIBenchmark {
+  }
+}
@@ -40,11 +40,18 @@ public abstract class LinkedListAllocationCache<T> implements AllocationCache<T>
 
     @Override
     public final T acquire() {
+        if (sharedPool != null) {
+            return sharedPool.acquire();
+        }
         return cacheBuffers.removeFirst();
     }
 
     @Override
     public final void release(T buffer) {
+        if (sharedPool != null) {
+            sharedPool.release(buffer);
+            return;
+        }
         cacheBuffers.addLast(buffer);
     }
 
@@ -55,6 +62,9 @@ public abstract class LinkedListAllocationCache<T> implements AllocationCache<T>
     // As many elements of valueSize as fit in cacheSize
     private LinkedList<T> cacheBuffers = new LinkedList<>();
 
+    // When set, buffers are taken from (and given back to) this pool instead
+    private StripedAllocationPool<T> sharedPool;
+
     protected byte[] byteArrayOfSize(int size) {
         return copyOutCache.computeIfAbsent(size, k -> new byte[size]);
     }
@@ -83,8 +93,42 @@ public abstract class LinkedListAllocationCache<T> implements AllocationCache<T>
         }
     }
 
+    /**
+     * Take buffers from a pool which is shared with the caches of other threads,
+     * rather than keeping buffers of our own.
+     * The first cache to be set up with the pool fills it with as many buffers as fit in cacheSize;
+     * the buffers are freed when the pool is torn down.
+     * This cache is attached to the pool for the calling thread, so the pool can also be used directly.
+     */
+    public void setup(int valueSize, int valueOverhead, int cacheSize, Checksum checksum, Blackhole blackhole,
+                      StripedAllocationPool<T> sharedPool) {
+        this.checksum = checksum;
+        this.prepare = Prepare.none;
+        this.blackhole = blackhole;
+        this.sharedPool = sharedPool;
+
+        sharedPool.fill(capacityFor(valueSize, valueOverhead, cacheSize), () -> allocate(valueSize), this::free);
+        sharedPool.attach(this);
+    }
+
+    /**
+     * The number of buffers a cache set up with these sizes holds, as many as fit in cacheSize,
+     * and at least one.
+     */
+    public static int capacityFor(int valueSize, int valueOverhead, int cacheSize) {
+        return Math.max(1, (cacheSize + valueSize + valueOverhead - 1) / (valueSize + valueOverhead));
+    }
+
+    /**
+     * @return the number of buffers held, by this cache or by its shared pool
+     */
+    public int capacity() {
+        return sharedPool != null ? sharedPool.capacity() : cacheBuffers.size();
+    }
+
     // Hope we have done enough to free direct BB memory.
     public void tearDown() {
+        sharedPool = null;
 
         while (!cacheBuffers.isEmpty()) {
             T buffer = cacheBuffers.removeFirst();
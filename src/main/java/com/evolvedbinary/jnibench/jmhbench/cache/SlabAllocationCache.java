@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench.cache;
+
+import com.evolvedbinary.jnibench.jmhbench.cache.UnsafeBufferCache.UnsafeBuffer;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Serves buffers of mixed sizes from a single region allocated with {@link sun.misc.Unsafe}.
+ *
+ * The region is carved into slices of power-of-two size classes, from 16 bytes up to 256 KB,
+ * each size class getting an equal share of the region. A request is served by a slice
+ * of the smallest size class which can hold it.
+ */
+public class SlabAllocationCache {
+
+    // 16 B, the smallest size class, also serves the 10 B values
+    private static final int MIN_SIZE_CLASS_SHIFT = 4;
+    // 256 KB
+    private static final int MAX_SIZE_CLASS_SHIFT = 18;
+    private static final int SIZE_CLASSES = MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1;
+
+    public static final int MAX_SIZE = 1 << MAX_SIZE_CLASS_SHIFT;
+
+    // 0-sized, only used to checksum the buffers
+    private final UnsafeBufferCache checksumCache = new UnsafeBufferCache();
+
+    private long region;
+    private long regionSize;
+    private UnsafeBuffer[][] freeSlices;
+    private int[] freeCounts;
+
+    private long requestedBytes;
+    private long reservedBytes;
+
+    public void setup(int cacheSize, AllocationCache.Checksum checksum, Blackhole blackhole) {
+        final long classShare = cacheSize / SIZE_CLASSES;
+        final int[] slices = new int[SIZE_CLASSES];
+        regionSize = 0;
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            final int classSize = classSize(i);
+            slices[i] = (int) Math.max(1, classShare / classSize);
+            regionSize += (long) slices[i] * classSize;
+        }
+
+        region = UnsafeBufferCache.unsafe.allocateMemory(regionSize);
+        freeSlices = new UnsafeBuffer[SIZE_CLASSES][];
+        freeCounts = new int[SIZE_CLASSES];
+        long handle = region;
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            final int classSize = classSize(i);
+            freeSlices[i] = new UnsafeBuffer[slices[i]];
+            for (int j = 0; j < slices[i]; j++) {
+                freeSlices[i][j] = new UnsafeBuffer(handle, classSize);
+                handle += classSize;
+            }
+            freeCounts[i] = slices[i];
+        }
+
+        requestedBytes = 0;
+        reservedBytes = 0;
+        checksumCache.setup(0, 0, 0, checksum, blackhole);
+    }
+
+    public void tearDown() {
+        if (region != 0) {
+            UnsafeBufferCache.unsafe.freeMemory(region);
+            region = 0;
+        }
+        freeSlices = null;
+        checksumCache.tearDown();
+    }
+
+    /**
+     * Take a slice which can hold a value of the given size.
+     *
+     * @param size the size of the value
+     * @return a buffer of exactly the requested size, over a slice of the region
+     */
+    public UnsafeBuffer acquire(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative, but was " + size);
+        }
+        if (size > MAX_SIZE) {
+            throw new IllegalArgumentException("Size " + size + " is larger than the largest size class " + MAX_SIZE);
+        }
+        final int sizeClass = sizeClass(size);
+        if (freeCounts[sizeClass] == 0) {
+            throw new IllegalStateException("No free slices in size class " + classSize(sizeClass));
+        }
+        final UnsafeBuffer buffer = freeSlices[sizeClass][--freeCounts[sizeClass]];
+        buffer.size = size;
+
+        requestedBytes += size;
+        reservedBytes += classSize(sizeClass);
+        return buffer;
+    }
+
+    public void release(UnsafeBuffer buffer) {
+        final int sizeClass = sizeClass((int) buffer.size);
+        freeSlices[sizeClass][freeCounts[sizeClass]++] = buffer;
+    }
+
+    public void checksumBuffer(UnsafeBuffer buffer) {
+        checksumCache.checksumBuffer(buffer);
+    }
+
+    /**
+     * @return the size of the off-heap region, in bytes
+     */
+    public long footprint() {
+        return regionSize;
+    }
+
+    /**
+     * @return the fraction of the bytes handed out so far which were
+     *     lost to rounding requests up to their size class
+     */
+    public double internalFragmentation() {
+        return reservedBytes == 0 ? 0 : 1.0 - (double) requestedBytes / reservedBytes;
+    }
+
+    private static int classSize(int sizeClass) {
+        return 1 << (sizeClass + MIN_SIZE_CLASS_SHIFT);
+    }
+
+    private static int sizeClass(int size) {
+        // an empty value is held by the smallest size class
+        return Math.max(0, 32 - Integer.numberOfLeadingZeros(Math.max(size, 1) - 1) - MIN_SIZE_CLASS_SHIFT);
+    }
+}
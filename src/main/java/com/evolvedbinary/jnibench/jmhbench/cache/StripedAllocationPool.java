@@ -0,0 +1,243 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A fixed-capacity pool of buffers which can be shared by many threads.
+ *
+ * The buffers are spread over a number of stripes, each of which is a bounded lock-free
+ * MPMC ring. Each thread is given a home stripe, round robin, and only moves on to the other
+ * stripes when that one is empty (on acquire) or full (on release).
+ *
+ * As an {@link AllocationCache} it checksums and prepares buffers with the cache that the
+ * calling thread attached, see {@link #attach(AllocationCache)}, which knows their type.
+ *
+ * @param <T> the type of the buffers
+ */
+public class StripedAllocationPool<T> implements AllocationCache<T> {
+
+    // Thread.getId() is deprecated from Java 19, and Thread.threadId() is not in Java 8
+    private static final AtomicInteger NEXT_STRIPE = new AtomicInteger();
+    private static final ThreadLocal<Integer> HOME_STRIPE = ThreadLocal.withInitial(NEXT_STRIPE::getAndIncrement);
+
+    private final Ring<T>[] stripes;
+    private final ThreadLocal<AllocationCache<T>> attached = new ThreadLocal<>();
+    private final int stripeMask;
+    private Consumer<T> free;
+    private boolean filled;
+    private int capacity;
+
+    public StripedAllocationPool() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    public StripedAllocationPool(final int stripes) {
+        this.stripes = (Ring<T>[]) new Ring<?>[nextPowerOfTwo(stripes)];
+        this.stripeMask = this.stripes.length - 1;
+    }
+
+    /**
+     * Fill the pool, unless it has already been filled.
+     *
+     * @param count the number of buffers to fill the pool with
+     * @param allocate allocates a buffer
+     * @param free frees a buffer, when the pool is torn down
+     */
+    public synchronized void fill(final int count, final Supplier<T> allocate, final Consumer<T> free) {
+        if (filled) {
+            return;
+        }
+
+        final int capacity = nextPowerOfTwo((count + stripes.length - 1) / stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Ring<>(capacity);
+        }
+        for (int i = 0; i < count; i++) {
+            stripes[i & stripeMask].offer(allocate.get());
+        }
+        this.free = free;
+        this.filled = true;
+        this.capacity = count;
+    }
+
+    /**
+     * @return the number of buffers the pool was filled with
+     */
+    public synchronized int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Checksum and prepare the buffers the calling thread acquires from this pool with cache.
+     */
+    public void attach(final AllocationCache<T> cache) {
+        attached.set(cache);
+    }
+
+    /**
+     * Take a buffer from the pool, waiting for one to be released if the pool is empty.
+     *
+     * @return the buffer
+     */
+    @Override
+    public T acquire() {
+        final int stripe = stripe();
+        while (true) {
+            for (int i = 0; i < stripes.length; i++) {
+                final T item = stripes[(stripe + i) & stripeMask].poll();
+                if (item != null) {
+                    return item;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Give a buffer back to the pool.
+     *
+     * @param item a buffer which was taken from this pool
+     */
+    @Override
+    public void release(final T item) {
+        // there is always room somewhere, as the stripes can hold every buffer between them
+        for (int stripe = stripe(); !stripes[stripe & stripeMask].offer(item); stripe++) {
+        }
+    }
+
+    @Override
+    public void checksumBuffer(final T item) {
+        attached().checksumBuffer(item);
+    }
+
+    @Override
+    public void prepareBuffer(final T item, final byte fillByte) {
+        attached().prepareBuffer(item, fillByte);
+    }
+
+    private AllocationCache<T> attached() {
+        final AllocationCache<T> cache = attached.get();
+        if (cache == null) {
+            throw new IllegalStateException("No cache is attached to the pool on " + Thread.currentThread().getName());
+        }
+        return cache;
+    }
+
+    /**
+     * Free all of the buffers in the pool.
+     */
+    public synchronized void tearDown() {
+        if (!filled) {
+            return;
+        }
+
+        for (final Ring<T> ring : stripes) {
+            T item;
+            while ((item = ring.poll()) != null) {
+                free.accept(item);
+            }
+        }
+        filled = false;
+    }
+
+    private int stripe() {
+        return HOME_STRIPE.get() & stripeMask;
+    }
+
+    private static int nextPowerOfTwo(final int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * Bounded MPMC queue after Dmitry Vyukov, each slot carries a sequence number
+     * which tells producers and consumers whose turn it is.
+     */
+    private static final class Ring<T> {
+        private final int mask;
+        private final Object[] items;
+        private final AtomicLongArray sequences;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        Ring(final int capacity) {
+            this.mask = capacity - 1;
+            this.items = new Object[capacity];
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(final T item) {
+            long pos = tail.get();
+            while (true) {
+                final int index = (int) pos & mask;
+                final long dif = sequences.get(index) - pos;
+                if (dif == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        items[index] = item;
+                        // publishes the item
+                        sequences.set(index, pos + 1);
+                        return true;
+                    }
+                } else if (dif < 0) {
+                    // full
+                    return false;
+                }
+                pos = tail.get();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        T poll() {
+            long pos = head.get();
+            while (true) {
+                final int index = (int) pos & mask;
+                final long dif = sequences.get(index) - (pos + 1);
+                if (dif == 0) {
+                    if (head.compareAndSet(pos, pos + 1)) {
+                        final T item = (T) items[index];
+                        items[index] = null;
+                        sequences.set(index, pos + mask + 1);
+                        return item;
+                    }
+                } else if (dif < 0) {
+                    // empty
+                    return null;
+                }
+                pos = head.get();
+            }
+        }
+    }
+}
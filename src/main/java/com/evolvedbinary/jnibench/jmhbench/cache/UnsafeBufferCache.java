@@ -32,7 +32,7 @@ import java.lang.reflect.Field;
 
 public class UnsafeBufferCache extends LinkedListAllocationCache<UnsafeBufferCache.UnsafeBuffer> {
 
-    private static Unsafe unsafe;
+    static Unsafe unsafe;
 
     static {
         try {
@@ -49,9 +49,13 @@ public class JMHCaller {
         String[] clazzPath = clazz.split(String.valueOf(backslash) + String.valueOf(dot));
         String[] methodParts = stack[JMH_MAGIC].getMethodName().split(String.valueOf('_'));
         assert "jmh_generated".equals(clazzPath[clazzPath.length - 2]);
+        // <class>_<method>_jmhTest, where the class of a nested benchmark is <outer>_<nested>
         String[] clazzParts = clazzPath[clazzPath.length - 1].split(String.valueOf('_'));
         caller.benchmarkClass = clazzParts[0];
-        caller.benchmarkMethod = clazzParts[1];
+        for (int i = 1; i < clazzParts.length - 2; i++) {
+            caller.benchmarkClass += "." + clazzParts[i];
+        }
+        caller.benchmarkMethod = clazzParts[clazzParts.length - 2];
         assert caller.benchmarkMethod.equals(methodParts[0]);
 
         return caller;
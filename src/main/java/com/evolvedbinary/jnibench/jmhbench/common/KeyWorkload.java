@@ -0,0 +1,294 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench.common;
+
+import com.evolvedbinary.jnibench.common.bytearray.MockDb;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The keys which a get/put benchmark calls with, and the size of the value of each key.
+ *
+ * A fixed workload always uses the same key. Otherwise a keyspace is generated in the native {@link MockDb},
+ * with key lengths and value sizes drawn from {@link ValueSizeDistribution}s, and each thread walks its own
+ * {@link Cursor} over the keyspace, drawing each key uniformly or from a Zipfian distribution as it goes,
+ * so that over a trial the cursors reach the whole keyspace.
+ */
+public class KeyWorkload {
+
+    public enum KeyDistribution {
+        fixed,
+        uniform,
+        zipfian
+    }
+
+    // a zipfian rank is looked up at one of 2^ZIPF_QUANTILE_BITS evenly spaced quantiles
+    private static final int ZIPF_QUANTILE_BITS = 16;
+
+    // the number of keys described by each call to MockDb.describe
+    private static final int DESCRIBE_CHUNK = 1 << 16;
+
+    private final KeyDistribution keyDistribution;
+    private final int numKeys;
+    private final long seed;
+    private final AtomicInteger cursors = new AtomicInteger();
+
+    // the key and value size of a fixed workload
+    private final byte[] fixedKey;
+    private final int fixedValueSize;
+
+    private final int maxKeyLength;
+    private final int maxValueSize;
+
+    // the distinct key lengths and value sizes of a generated keyspace, in ascending order
+    private final int[] keyLengths;
+    private final int[] valueSizes;
+    // for each key, the index of its key length in keyLengths << 16 | the index of its value size in valueSizes
+    private final int[] sizeClasses;
+
+    // see https://dl.acm.org/doi/10.1145/191843.191886 (Gray et al, Quickly Generating Billion-Record Synthetic Databases)
+    private final double zipfExponent;
+    private final double zetaN;
+    private final double zipfEta;
+    // the rank at each quantile, and at the last
+    private final int[] zipfRanks;
+
+    private KeyWorkload(final KeyDistribution keyDistribution, final int numKeys, final long seed,
+                        final byte[] fixedKey, final int fixedValueSize, final int[] keyLengths,
+                        final int[] valueSizes, final int[] sizeClasses, final double zipfExponent) {
+        this.keyDistribution = keyDistribution;
+        this.numKeys = numKeys;
+        this.seed = seed;
+        this.fixedKey = fixedKey;
+        this.fixedValueSize = fixedValueSize;
+        this.keyLengths = keyLengths;
+        this.valueSizes = valueSizes;
+        this.sizeClasses = sizeClasses;
+        this.maxKeyLength = keyLengths[keyLengths.length - 1];
+        this.maxValueSize = valueSizes[valueSizes.length - 1];
+
+        this.zipfExponent = zipfExponent;
+        if (keyDistribution == KeyDistribution.zipfian) {
+            if (zipfExponent <= 0 || zipfExponent >= 1) {
+                throw new IllegalArgumentException("zipfExponent must be between 0 and 1, but was " + zipfExponent);
+            }
+            double zeta = 0;
+            for (int i = 1; i <= numKeys; i++) {
+                zeta += 1.0 / Math.pow(i, zipfExponent);
+            }
+            final double zeta2 = 1.0 + 1.0 / Math.pow(2, zipfExponent);
+            this.zetaN = zeta;
+            this.zipfEta = (1 - Math.pow(2.0 / numKeys, 1 - zipfExponent)) / (1 - zeta2 / zeta);
+            this.zipfRanks = new int[(1 << ZIPF_QUANTILE_BITS) + 1];
+            for (int i = 0; i < zipfRanks.length; i++) {
+                zipfRanks[i] = zipfianRank((double) i / (1 << ZIPF_QUANTILE_BITS));
+            }
+        } else {
+            this.zetaN = 0;
+            this.zipfEta = 0;
+            this.zipfRanks = null;
+        }
+    }
+
+    public static KeyWorkload fixed(final byte[] key, final int valueSize) {
+        return new KeyWorkload(KeyDistribution.fixed, 1, 0, key, valueSize, new int[]{key.length},
+                               new int[]{valueSize}, null, 0);
+    }
+
+    /**
+     * Generate a keyspace of numKeys keys in the native {@link MockDb}.
+     *
+     * @param keyDistribution how the cursors choose keys, if fixed then the fixed key and value size are used
+     * @param fixedKey the key of a fixed workload
+     * @param fixedValueSize the value size of a fixed workload
+     * @param numKeys the number of keys to generate
+     * @param keySizeDistribution the distribution of the lengths of the keys
+     * @param valueSizeDistribution the distribution of the value sizes of the keys
+     * @param zipfExponent the skew of a zipfian key distribution, between 0 and 1
+     * @param seed the seed, so that runs can be repeated
+     */
+    public static KeyWorkload create(final KeyDistribution keyDistribution, final byte[] fixedKey,
+                                     final int fixedValueSize, final int numKeys, final String keySizeDistribution,
+                                     final String valueSizeDistribution, final double zipfExponent,
+                                     final long seed) {
+        if (keyDistribution == KeyDistribution.fixed) {
+            return fixed(fixedKey, fixedValueSize);
+        }
+
+        final ValueSizeDistribution keySizes = ValueSizeDistribution.parse(keySizeDistribution);
+        final ValueSizeDistribution valueSizes = ValueSizeDistribution.parse(valueSizeDistribution);
+        MockDb.populate(numKeys, keySizes.sizes(), keySizes.weights(), valueSizes.sizes(), valueSizes.weights(),
+                        seed);
+
+        final int[] keyLengths = Arrays.stream(keySizes.sizes()).distinct().sorted().toArray();
+        final int[] distinctValueSizes = Arrays.stream(valueSizes.sizes()).distinct().sorted().toArray();
+        if (keyLengths.length > 0xffff || distinctValueSizes.length > 0xffff) {
+            throw new IllegalArgumentException("At most " + 0xffff + " distinct key lengths and value sizes are supported");
+        }
+        final int[] sizeClasses = new int[numKeys];
+        for (int from = 0; from < numKeys; from += DESCRIBE_CHUNK) {
+            final int[] indices = new int[Math.min(DESCRIBE_CHUNK, numKeys - from)];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = from + i;
+            }
+            final int[] keyLengthOfKey = new int[indices.length];
+            final int[] valueSizeOfKey = new int[indices.length];
+            MockDb.describe(indices, keyLengthOfKey, valueSizeOfKey);
+            for (int i = 0; i < indices.length; i++) {
+                sizeClasses[from + i] = Arrays.binarySearch(keyLengths, keyLengthOfKey[i]) << 16
+                        | Arrays.binarySearch(distinctValueSizes, valueSizeOfKey[i]);
+            }
+        }
+        return new KeyWorkload(keyDistribution, numKeys, seed, null, 0, keyLengths, distinctValueSizes, sizeClasses,
+                               zipfExponent);
+    }
+
+    public boolean isFixed() {
+        return keyDistribution == KeyDistribution.fixed;
+    }
+
+    /**
+     * Remove the generated keyspace from the native {@link MockDb}.
+     */
+    public void clear() {
+        if (!isFixed()) {
+            MockDb.clear();
+        }
+    }
+
+    public int maxKeyLength() {
+        return maxKeyLength;
+    }
+
+    public int maxValueSize() {
+        return maxValueSize;
+    }
+
+    /**
+     * Each cursor draws a different sequence of keys, so each thread should have its own.
+     *
+     * @param counters the counters of the thread, which each call is counted in
+     */
+    public Cursor cursor(final ValueSizeCounters counters) {
+        if (isFixed()) {
+            return new Cursor(this, null, counters);
+        }
+        return new Cursor(this, new SplittableRandom(seed + cursors.incrementAndGet()), counters);
+    }
+
+    private int nextIndex(final SplittableRandom random) {
+        if (zipfRanks == null) {
+            return random.nextInt(numKeys);
+        }
+        // key i has rank i, which is independent of its key length and value size;
+        // between two quantiles the distribution is close to flat, so the rank is drawn uniformly between them
+        final long bits = random.nextLong();
+        final int quantile = (int) (bits >>> (Long.SIZE - ZIPF_QUANTILE_BITS));
+        final int low = zipfRanks[quantile];
+        final int ranks = zipfRanks[quantile + 1] - low + 1;
+        return low + (int) (((bits & 0xffffffffL) * ranks) >>> Integer.SIZE);
+    }
+
+    private int zipfianRank(final double u) {
+        final double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, zipfExponent)) {
+            return Math.min(1, numKeys - 1);
+        }
+        final int rank = (int) (numKeys * Math.pow(zipfEta * u - zipfEta + 1, 1 / (1 - zipfExponent)));
+        return Math.min(rank, numKeys - 1);
+    }
+
+    /**
+     * The current key of a thread, which counts the calls made with each value size in {@link ValueSizeCounters},
+     * so that JMH reports a score for each value size of a mixed workload.
+     *
+     * Each call draws its key, and writes it into a key array reused for keys of the same length,
+     * so the key is only valid until the next call.
+     */
+    public static final class Cursor {
+
+        public byte[] key;
+        public int valueSize;
+
+        private final KeyWorkload workload;
+        private final SplittableRandom random;
+        // a key of each key length, which the index of the current key is written into
+        private final byte[][] keyOfLength;
+
+        private final long[] calls;
+        // the index in calls of each of the value sizes of the workload
+        private final int[] counterOfValueSize;
+
+        private Cursor(final KeyWorkload workload, final SplittableRandom random, final ValueSizeCounters counters) {
+            this.workload = workload;
+            this.random = random;
+            this.calls = counters.calls;
+            if (random == null) {
+                this.keyOfLength = null;
+                this.counterOfValueSize = null;
+                this.key = workload.fixedKey;
+                this.valueSize = workload.fixedValueSize;
+            } else {
+                this.keyOfLength = new byte[workload.keyLengths.length][];
+                for (int i = 0; i < keyOfLength.length; i++) {
+                    keyOfLength[i] = MockDb.key(0, workload.keyLengths[i]);
+                }
+                this.counterOfValueSize = new int[workload.valueSizes.length];
+                for (int i = 0; i < counterOfValueSize.length; i++) {
+                    counterOfValueSize[i] = ValueSizeCounters.counterOf(workload.valueSizes[i]);
+                }
+                next();
+                counters.reset();
+            }
+        }
+
+        /**
+         * Draw the next key, and count the call made with it.
+         * Does nothing for a fixed workload, whose calls are not counted.
+         */
+        public void next() {
+            if (random == null) {
+                return;
+            }
+            final int index = workload.nextIndex(random);
+            final int sizeClass = workload.sizeClasses[index];
+            // see MockDb.key(int, int)
+            final byte[] key = keyOfLength[sizeClass >>> 16];
+            key[0] = (byte) (index >>> 24);
+            key[1] = (byte) (index >>> 16);
+            key[2] = (byte) (index >>> 8);
+            key[3] = (byte) index;
+            this.key = key;
+            this.valueSize = workload.valueSizes[sizeClass & 0xffff];
+            calls[counterOfValueSize[sizeClass & 0xffff]]++;
+        }
+    }
+}
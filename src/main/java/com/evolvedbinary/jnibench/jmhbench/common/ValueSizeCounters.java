@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench.common;
+
+import java.util.Arrays;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The calls a thread makes with each value size of a {@link KeyWorkload}, which JMH reports as a
+ * secondary result per value size, e.g. calls/s of valueSize4096, in the Throughput and AverageTime modes.
+ *
+ * The value sizes are those of the valueSize params; a value counts against the smallest of them which holds it,
+ * or against valueSizeLarger. A fixed workload does not count its calls, and a counter of no calls is reported
+ * as 0 ops/s, or as Infinity in the AverageTime mode.
+ */
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+@State(Scope.Thread)
+public class ValueSizeCounters {
+
+    private static final int[] VALUE_SIZES = {10, 50, 128, 512, 1024, 4096, 8192, 16384, 32768, 65536, 131072};
+
+    final long[] calls = new long[VALUE_SIZES.length + 1];
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        Arrays.fill(calls, 0);
+    }
+
+    /**
+     * @return the index in {@link #calls} of the calls made with a value of valueSize bytes
+     */
+    static int counterOf(final int valueSize) {
+        for (int i = 0; i < VALUE_SIZES.length; i++) {
+            if (valueSize <= VALUE_SIZES[i]) {
+                return i;
+            }
+        }
+        return VALUE_SIZES.length;
+    }
+
+    public long valueSize10() {
+        return calls[0];
+    }
+
+    public long valueSize50() {
+        return calls[1];
+    }
+
+    public long valueSize128() {
+        return calls[2];
+    }
+
+    public long valueSize512() {
+        return calls[3];
+    }
+
+    public long valueSize1024() {
+        return calls[4];
+    }
+
+    public long valueSize4096() {
+        return calls[5];
+    }
+
+    public long valueSize8192() {
+        return calls[6];
+    }
+
+    public long valueSize16384() {
+        return calls[7];
+    }
+
+    public long valueSize32768() {
+        return calls[8];
+    }
+
+    public long valueSize65536() {
+        return calls[9];
+    }
+
+    public long valueSize131072() {
+        return calls[10];
+    }
+
+    public long valueSizeLarger() {
+        return calls[11];
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A distribution of value sizes, described by a whitespace separated list of size:weight pairs,
+ * e.g. {@code "10:4 4096:2 65536:1"}.
+ *
+ * A histogram file can be given instead as {@code "@path/to/histogram"},
+ * each line of which is a size:weight pair; lines starting with # are ignored.
+ */
+public class ValueSizeDistribution {
+
+    private final int[] sizes;
+    private final int[] cumulativeWeights;
+
+    private ValueSizeDistribution(final int[] sizes, final int[] cumulativeWeights) {
+        this.sizes = sizes;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    public static ValueSizeDistribution parse(final String distribution) {
+        if (distribution.startsWith("@")) {
+            return parse(readHistogram(distribution.substring(1)));
+        }
+        final String[] pairs = distribution.trim().split("\\s+");
+        final int[] sizes = new int[pairs.length];
+        final int[] cumulativeWeights = new int[pairs.length];
+        int totalWeight = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            final String[] pair = pairs[i].split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected size:weight, but found: " + pairs[i]);
+            }
+            sizes[i] = Integer.parseInt(pair[0]);
+            totalWeight += Integer.parseInt(pair[1]);
+            cumulativeWeights[i] = totalWeight;
+        }
+        return new ValueSizeDistribution(sizes, cumulativeWeights);
+    }
+
+    private static String readHistogram(final String path) {
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(Paths.get(path));
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to read histogram: " + path, e);
+        }
+        final StringBuilder pairs = new StringBuilder();
+        for (final String line : lines) {
+            final String pair = line.trim();
+            if (!pair.isEmpty() && !pair.startsWith("#")) {
+                pairs.append(pair).append(' ');
+            }
+        }
+        return pairs.toString();
+    }
+
+    /**
+     * @return the sizes of the distribution, in the order they were given
+     */
+    public int[] sizes() {
+        return sizes;
+    }
+
+    /**
+     * @return the weight of each of the {@link #sizes()}
+     */
+    public int[] weights() {
+        final int[] weights = new int[cumulativeWeights.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1]);
+        }
+        return weights;
+    }
+
+    public int maxSize() {
+        int max = 0;
+        for (final int size : sizes) {
+            max = Math.max(max, size);
+        }
+        return max;
+    }
+
+    /**
+     * Draw from the distribution.
+     *
+     * @param count the number of draws
+     * @param seed the seed, so that runs can be repeated
+     * @return the index into {@link #sizes()} of each draw
+     */
+    public int[] sample(final int count, final long seed) {
+        final Random random = new Random(seed);
+        final int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+        final int[] samples = new int[count];
+        for (int i = 0; i < count; i++) {
+            final int weight = random.nextInt(totalWeight);
+            int index = 0;
+            while (cumulativeWeights[index] <= weight) {
+                index++;
+            }
+            samples[i] = index;
+        }
+        return samples;
+    }
+}
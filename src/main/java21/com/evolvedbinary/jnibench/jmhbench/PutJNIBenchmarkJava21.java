@@ -27,6 +27,7 @@
 package com.evolvedbinary.jnibench.jmhbench;
 
 import com.evolvedbinary.jnibench.jmhbench.cache.MemorySegmentCache;
+import com.evolvedbinary.jnibench.jmhbench.common.ValueSizeCounters;
 import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.Linker;
@@ -55,6 +56,7 @@ public class PutJNIBenchmarkJava21 extends PutJNIBenchmark {
                                                                                       FunctionDescriptor.of(
                                                                                           ValueLayout.JAVA_INT,
                                                                                           ValueLayout.ADDRESS,
+                                                                                          ValueLayout.JAVA_INT,
                                                                                           ValueLayout.ADDRESS,
                                                                                           ValueLayout.JAVA_INT)))
                                                  .orElseThrow();
@@ -78,6 +80,7 @@ public class PutJNIBenchmarkJava21 extends PutJNIBenchmark {
       if (benchmarkArena != null) {
         benchmarkArena.close();
       }
+      super.tearDown();
     }
   }
 
@@ -85,12 +88,13 @@ public class PutJNIBenchmarkJava21 extends PutJNIBenchmark {
     private final MemorySegmentCache memorySegmentCache = new MemorySegmentCache();
 
     @Setup
-    public void setup(final PutJNIBenchmarkStateJava21 benchmarkState, final Blackhole blackhole) {
+    public void setup(final PutJNIBenchmarkStateJava21 benchmarkState, final ValueSizeCounters valueSizeCounters,
+                      final Blackhole blackhole) {
       if (isPutFromMemorySegmentJava21(benchmarkState)) {
-        memorySegmentCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead,
+        memorySegmentCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
                                  benchmarkState.writePreparation, blackhole);
       } else {
-        super.setup(benchmarkState, blackhole);
+        super.setup(benchmarkState, valueSizeCounters, blackhole);
       }
     }
 
@@ -117,6 +121,7 @@ public class PutJNIBenchmarkJava21 extends PutJNIBenchmark {
     try {
       final var size = (int) PUT_FROM_MEMORY_SEGMENT_HANDLE.invokeExact(
           benchmarkState.keyMemorySegment, // Pre-allocated segment for key
+          benchmarkState.keyBytes.length,
           segment,
           benchmarkState.valueSize
       );
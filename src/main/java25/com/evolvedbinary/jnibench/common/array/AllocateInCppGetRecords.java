@@ -0,0 +1,190 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.common.array;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+
+/**
+ * Transfers the array as fixed size records, which native code writes into a single segment with one downcall,
+ * and which are read with VarHandles, so no Java object is constructed by native code.
+ *
+ * The segment is reused by each call, and only reallocated when it is too small, so the list returned by
+ * {@link #getObjectList(NativeObjectArray)} is only valid until the next call, or until this is closed.
+ */
+public class AllocateInCppGetRecords implements JniListSupplier<FooObject>, AutoCloseable {
+
+  /**
+   * Names of up to this many bytes are stored inline in their record, longer ones after all of the records.
+   */
+  static final int INLINE_NAME_BYTES = 16;
+
+  /**
+   * Matches FooObjectRecord in FooObjectRecords.cpp.
+   */
+  static final StructLayout RECORD = MemoryLayout.structLayout(
+      ValueLayout.JAVA_LONG.withName("value"),
+      ValueLayout.JAVA_INT.withName("nameLength"),
+      ValueLayout.JAVA_INT.withName("nameOffset"),
+      MemoryLayout.sequenceLayout(INLINE_NAME_BYTES, ValueLayout.JAVA_BYTE).withName("inlineName"));
+
+  // coordinates: the segment, a base offset of 0, and the record index
+  private static final VarHandle VALUE = RECORD.arrayElementVarHandle(groupElement("value"));
+  private static final VarHandle NAME_LENGTH = RECORD.arrayElementVarHandle(groupElement("nameLength"));
+  private static final VarHandle NAME_OFFSET = RECORD.arrayElementVarHandle(groupElement("nameOffset"));
+  private static final long INLINE_NAME_OFFSET = RECORD.byteOffset(groupElement("inlineName"));
+
+  private static final MethodHandle RECORDS_SIZE_HANDLE;
+  private static final MethodHandle RECORDS_FILL_HANDLE;
+
+  static {
+    try {
+      Linker linker = Linker.nativeLinker();
+      SymbolLookup symbolLookup = SymbolLookup.loaderLookup();
+
+      RECORDS_SIZE_HANDLE = findHandle(symbolLookup, linker, "foo_object_records_size",
+                                       FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS));
+      RECORDS_FILL_HANDLE = findHandle(symbolLookup, linker, "foo_object_records_fill",
+                                       FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS,
+                                                             ValueLayout.ADDRESS, ValueLayout.JAVA_LONG));
+    } catch (Exception e) {
+      System.err.println("FFM Setup failed: " + e.getMessage());
+      throw new RuntimeException(e);
+    }
+  }
+
+  private Arena arena;
+  private MemorySegment buffer = MemorySegment.NULL;
+
+  private static MethodHandle findHandle(SymbolLookup lookup, Linker linker, String symbol,
+                                         FunctionDescriptor descriptor) {
+    var symbolOpt = lookup.find(symbol)
+                          .or(() -> lookup.find("_" + symbol)); // macOS prefix
+    return symbolOpt.map(memorySegment -> linker.downcallHandle(memorySegment, descriptor))
+                    .orElse(null);
+  }
+
+  @Override
+  public List<FooObject> getObjectList(final NativeObjectArray<FooObject> nativeObjectArray) {
+    if (RECORDS_SIZE_HANDLE == null || RECORDS_FILL_HANDLE == null) {
+      throw new RuntimeException("FFM not available");
+    }
+
+    final MemorySegment handle = MemorySegment.ofAddress(nativeObjectArray.get_nativeHandle());
+    try {
+      final long size = (long) RECORDS_SIZE_HANDLE.invokeExact(handle);
+      if (size > buffer.byteSize()) {
+        close();
+        // shared, so that the list can be read from any thread
+        arena = Arena.ofShared();
+        buffer = arena.allocate(size, RECORD.byteAlignment());
+      }
+      final MemorySegment records = buffer.asSlice(0, size);
+      final int count = (int) RECORDS_FILL_HANDLE.invokeExact(handle, records, size);
+      return new FooObjectRecordList(records, count);
+    } catch (final Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  /**
+   * Free the segment, which invalidates the last list.
+   */
+  @Override
+  public void close() {
+    if (arena != null) {
+      arena.close();
+      arena = null;
+      buffer = MemorySegment.NULL;
+    }
+  }
+
+  /**
+   * A read-only view of the records, which decodes a FooObject each time one is got.
+   */
+  public static class FooObjectRecordList extends AbstractList<FooObject> implements RandomAccess {
+
+    private final MemorySegment records;
+    private final int size;
+
+    FooObjectRecordList(final MemorySegment records, final int size) {
+      this.records = records;
+      this.size = size;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public FooObject get(final int index) {
+      return new FooObject(getName(index), getValue(index));
+    }
+
+    /**
+     * Decode just the name of an element, without a FooObject.
+     */
+    public String getName(final int index) {
+      final long i = checkIndex(index);
+      final int nameLength = (int) NAME_LENGTH.get(records, 0L, i);
+      final long nameOffset = nameLength <= INLINE_NAME_BYTES
+          ? i * RECORD.byteSize() + INLINE_NAME_OFFSET
+          : (int) NAME_OFFSET.get(records, 0L, i);
+      final byte[] name = new byte[nameLength];
+      MemorySegment.copy(records, ValueLayout.JAVA_BYTE, nameOffset, name, 0, nameLength);
+      return ModifiedUtf8.decode(name, 0, nameLength);
+    }
+
+    /**
+     * Get just the value of an element, without a FooObject.
+     */
+    public long getValue(final int index) {
+      return (long) VALUE.get(records, 0L, checkIndex(index));
+    }
+
+    private long checkIndex(final int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return index;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench;
+
+import com.evolvedbinary.jnibench.common.array.AllocateInCppGetRecords;
+import com.evolvedbinary.jnibench.common.array.FooObject;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+public class ArrayBenchmarkJava25 extends ArrayBenchmark {
+
+  /**
+   * Per thread, as each list is a view of the segment its supplier reuses.
+   */
+  @State(Scope.Thread)
+  public static class RecordsState {
+    AllocateInCppGetRecords allocateInCppGetRecords;
+
+    @Setup
+    public void setup() {
+      allocateInCppGetRecords = new AllocateInCppGetRecords();
+    }
+
+    @TearDown
+    public void tearDown() {
+      allocateInCppGetRecords.close();
+    }
+  }
+
+  @Benchmark
+  public List<FooObject> ffmGetRecords(BenchmarkState benchmarkState, RecordsState recordsState) {
+    return recordsState.allocateInCppGetRecords.getObjectList(benchmarkState.fooObjectArray);
+  }
+
+  /**
+   * As ffmGetRecords, but also decodes every element, as a caller reading the whole list would.
+   */
+  @Benchmark
+  public long ffmGetRecordsDecodeAll(BenchmarkState benchmarkState, RecordsState recordsState) {
+    final List<FooObject> list = recordsState.allocateInCppGetRecords.getObjectList(benchmarkState.fooObjectArray);
+    long sum = 0;
+    for (int i = 0; i < list.size(); i++) {
+      sum += list.get(i).hashCode();
+    }
+    return sum;
+  }
+}
@@ -26,7 +26,9 @@
  */
 package com.evolvedbinary.jnibench.jmhbench;
 
+import com.evolvedbinary.jnibench.jmhbench.cache.ByteArrayCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.MemorySegmentCache;
+import com.evolvedbinary.jnibench.jmhbench.common.ValueSizeCounters;
 import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.Linker;
@@ -43,6 +45,9 @@ import org.openjdk.jmh.infra.Blackhole;
 
 public class GetJNIBenchmarkJava25 extends GetJNIBenchmark {
   private static final MethodHandle GET_INTO_MEMORY_SEGMENT_HANDLE;
+  private static final MethodHandle GET_INTO_MEMORY_SEGMENT_CRITICAL_HANDLE;
+  private static final MethodHandle GET_PINNED_HANDLE;
+  private static final MethodHandle RELEASE_PINNED_HANDLE;
 
   static {
     // 1. Initialize the Linker and Lookup
@@ -55,10 +60,39 @@ public class GetJNIBenchmarkJava25 extends GetJNIBenchmark {
                                                                                       FunctionDescriptor.of(
                                                                                           ValueLayout.JAVA_INT,
                                                                                           ValueLayout.ADDRESS,
+                                                                                          ValueLayout.JAVA_INT,
                                                                                           ValueLayout.ADDRESS,
                                                                                           ValueLayout.JAVA_INT)))
                                                  .orElseThrow();
 
+    // critical, so that heap segments can be passed without copying them off-heap
+    GET_INTO_MEMORY_SEGMENT_CRITICAL_HANDLE = loaderLookup.find("getIntoMemorySegment")
+                                                          .map(symbol -> linker.downcallHandle(symbol,
+                                                                                               FunctionDescriptor.of(
+                                                                                                   ValueLayout.JAVA_INT,
+                                                                                                   ValueLayout.ADDRESS,
+                                                                                                   ValueLayout.JAVA_INT,
+                                                                                                   ValueLayout.ADDRESS,
+                                                                                                   ValueLayout.JAVA_INT),
+                                                                                               Linker.Option.critical(
+                                                                                                   true)))
+                                                          .orElseThrow();
+
+    GET_PINNED_HANDLE = loaderLookup.find("getPinned")
+                                    .map(symbol -> linker.downcallHandle(symbol,
+                                                                         FunctionDescriptor.of(
+                                                                             ValueLayout.ADDRESS,
+                                                                             ValueLayout.ADDRESS,
+                                                                             ValueLayout.JAVA_INT,
+                                                                             ValueLayout.ADDRESS,
+                                                                             ValueLayout.ADDRESS)))
+                                    .orElseThrow();
+
+    RELEASE_PINNED_HANDLE = loaderLookup.find("releasePinned")
+                                        .map(symbol -> linker.downcallHandle(symbol,
+                                                                             FunctionDescriptor.ofVoid(
+                                                                                 ValueLayout.ADDRESS)))
+                                        .orElseThrow();
   }
 
   @State(Scope.Benchmark)
@@ -79,20 +113,36 @@ public class GetJNIBenchmarkJava25 extends GetJNIBenchmark {
       if (arena != null) {
         arena.close();
       }
+      super.tearDown();
     }
   }
 
   @State(Scope.Thread)
   public static class GetJNIThreadStateJava25 extends GetJNIThreadState {
     private MemorySegmentCache memorySegmentCache = new MemorySegmentCache();
+    private final ByteArrayCache byteArrayCache = new ByteArrayCache();
+    private Arena arena;
+    private MemorySegment pinnedValueOut;
+    private MemorySegment pinnedValueLengthOut;
 
     @Setup
-    public void setup(final GetJNIBenchmarkStateJava25 benchmarkState, final Blackhole blackhole) {
+    public void setup(final GetJNIBenchmarkStateJava25 benchmarkState, final ValueSizeCounters valueSizeCounters,
+                      final Blackhole blackhole) {
       if ("getIntoMemorySegment".equals(benchmarkState.getCaller().benchmarkMethod)) {
         memorySegmentCache.setup(benchmarkState.valueSize, benchmarkState.cacheMB * GetJNIBenchmarkState.MB,
                                  benchmarkState.cacheEntryOverhead, benchmarkState.readChecksum, blackhole);
+      } else if ("getIntoHeapMemorySegmentCritical".equals(benchmarkState.getCaller().benchmarkMethod)) {
+        byteArrayCache.setup(benchmarkState.valueSize, benchmarkState.cacheEntryOverhead,
+                             benchmarkState.cacheMB * GetJNIBenchmarkState.MB, benchmarkState.readChecksum, blackhole);
+      } else if ("getPinnedMemorySegment".equals(benchmarkState.getCaller().benchmarkMethod)) {
+        //create a 0-sized cache so that we can use it to do checksum
+        memorySegmentCache.setup(benchmarkState.valueSize, benchmarkState.cacheEntryOverhead, 0/*cacheSize*/,
+                                 benchmarkState.readChecksum, blackhole);
+        arena = Arena.ofConfined();
+        pinnedValueOut = arena.allocate(ValueLayout.ADDRESS);
+        pinnedValueLengthOut = arena.allocate(ValueLayout.JAVA_INT);
       } else {
-        super.setup(benchmarkState, blackhole);
+        super.setup(benchmarkState, valueSizeCounters, blackhole);
       }
     }
 
@@ -100,6 +150,11 @@ public class GetJNIBenchmarkJava25 extends GetJNIBenchmark {
     public void tearDown(final GetJNIBenchmarkStateJava25 benchmarkState) {
       if ("getIntoMemorySegment".equals(benchmarkState.getCaller().benchmarkMethod)) {
         memorySegmentCache.tearDown();
+      } else if ("getIntoHeapMemorySegmentCritical".equals(benchmarkState.getCaller().benchmarkMethod)) {
+        byteArrayCache.tearDown();
+      } else if ("getPinnedMemorySegment".equals(benchmarkState.getCaller().benchmarkMethod)) {
+        memorySegmentCache.tearDown();
+        arena.close();
       } else {
         super.tearDown(benchmarkState);
       }
@@ -114,6 +169,7 @@ public class GetJNIBenchmarkJava25 extends GetJNIBenchmark {
     try {
       final var size = (int) GET_INTO_MEMORY_SEGMENT_HANDLE.invokeExact(
           benchmarkState.keyMemorySegment, // Pre-allocated segment for key
+          benchmarkState.keyBytes.length,
           segment,
           benchmarkState.valueSize
       );
@@ -125,4 +181,54 @@ public class GetJNIBenchmarkJava25 extends GetJNIBenchmark {
     threadState.memorySegmentCache.checksumBuffer(segment);
     threadState.memorySegmentCache.release(segment);
   }
+
+  @Benchmark
+  public void getIntoHeapMemorySegmentCritical(GetJNIBenchmarkStateJava25 benchmarkState,
+                                               GetJNIThreadStateJava25 threadState, Blackhole blackhole) {
+    final byte[] array = threadState.byteArrayCache.acquire();
+
+    try {
+      // the key and value stay on the heap, a critical downcall can address them directly
+      final var size = (int) GET_INTO_MEMORY_SEGMENT_CRITICAL_HANDLE.invokeExact(
+          MemorySegment.ofArray(benchmarkState.keyBytes),
+          benchmarkState.keyBytes.length,
+          MemorySegment.ofArray(array),
+          benchmarkState.valueSize
+      );
+      blackhole.consume(size);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+
+    threadState.byteArrayCache.checksumBuffer(array);
+    threadState.byteArrayCache.release(array);
+  }
+
+  @Benchmark
+  public void getPinnedMemorySegment(GetJNIBenchmarkStateJava25 benchmarkState, GetJNIThreadStateJava25 threadState,
+                                     Blackhole blackhole) {
+    final MemorySegment pinnedValue;
+    try {
+      pinnedValue = (MemorySegment) GET_PINNED_HANDLE.invokeExact(
+          benchmarkState.keyMemorySegment,
+          benchmarkState.keyBytes.length,
+          threadState.pinnedValueOut,
+          threadState.pinnedValueLengthOut
+      );
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+
+    // a read-only view which aliases the native value
+    final var segment = threadState.pinnedValueOut.get(ValueLayout.ADDRESS, 0)
+                                                  .reinterpret(threadState.pinnedValueLengthOut.get(ValueLayout.JAVA_INT, 0))
+                                                  .asReadOnly();
+    threadState.memorySegmentCache.checksumBuffer(segment);
+
+    try {
+      RELEASE_PINNED_HANDLE.invokeExact(pinnedValue);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
 }
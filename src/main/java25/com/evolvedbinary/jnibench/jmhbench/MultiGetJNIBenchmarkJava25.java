@@ -0,0 +1,160 @@
+/**
+ * Copyright © 2026, Evolved Binary Ltd
+ * All rights reserved.
+ * <p>
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ * * Neither the name of the <organization> nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.evolvedbinary.jnibench.jmhbench;
+
+import com.evolvedbinary.jnibench.jmhbench.cache.MemorySegmentCache;
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class MultiGetJNIBenchmarkJava25 extends MultiGetJNIBenchmark {
+  private static final MethodHandle MULTI_GET_INTO_MEMORY_SEGMENT_HANDLE;
+
+  static {
+    Linker linker = Linker.nativeLinker();
+    SymbolLookup loaderLookup = SymbolLookup.loaderLookup();
+
+    MULTI_GET_INTO_MEMORY_SEGMENT_HANDLE = loaderLookup.find("multiGetIntoMemorySegment")
+                                                       .map(symbol -> linker.downcallHandle(symbol,
+                                                                                            FunctionDescriptor.of(
+                                                                                                ValueLayout.JAVA_INT,
+                                                                                                ValueLayout.JAVA_INT,
+                                                                                                ValueLayout.ADDRESS,
+                                                                                                ValueLayout.ADDRESS,
+                                                                                                ValueLayout.ADDRESS,
+                                                                                                ValueLayout.ADDRESS,
+                                                                                                ValueLayout.ADDRESS)))
+                                                       .orElseThrow();
+  }
+
+  @State(Scope.Benchmark)
+  public static class MultiGetJNIBenchmarkStateJava25 extends MultiGetJNIBenchmarkState {
+    private Arena arena;
+    private MemorySegment keysMemorySegment;
+    private MemorySegment keyOffsetsMemorySegment;
+    private MemorySegment keyLengthsMemorySegment;
+
+    @Setup
+    public void setupJava25() {
+      super.setup();
+      arena = Arena.ofShared();
+
+      // all keys packed one after another in a single segment
+      final byte[] packedKeys = new byte[batchSize * keyBytes.length];
+      final int[] packedKeyOffsets = new int[batchSize];
+      final int[] packedKeyLengths = new int[batchSize];
+      for (int i = 0; i < batchSize; i++) {
+        System.arraycopy(keyBytes, 0, packedKeys, i * keyBytes.length, keyBytes.length);
+        packedKeyOffsets[i] = i * keyBytes.length;
+        packedKeyLengths[i] = keyBytes.length;
+      }
+      keysMemorySegment = arena.allocateFrom(ValueLayout.JAVA_BYTE, packedKeys);
+      keyOffsetsMemorySegment = arena.allocateFrom(ValueLayout.JAVA_INT, packedKeyOffsets);
+      keyLengthsMemorySegment = arena.allocateFrom(ValueLayout.JAVA_INT, packedKeyLengths);
+    }
+
+    @TearDown
+    public void tearDown() {
+      if (arena != null) {
+        arena.close();
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class MultiGetJNIThreadStateJava25 extends MultiGetJNIThreadState {
+    private final MemorySegmentCache memorySegmentCache = new MemorySegmentCache();
+    private Arena arena;
+    private MemorySegment valueLengthsMemorySegment;
+
+    @Setup
+    public void setup(final MultiGetJNIBenchmarkStateJava25 benchmarkState, final Blackhole blackhole) {
+      if ("multiGetIntoMemorySegment".equals(benchmarkState.getCaller().benchmarkMethod)) {
+        valueSize = benchmarkState.valueSize;
+        batchValueSize = benchmarkState.batchSize * benchmarkState.valueSize;
+        cacheSize = benchmarkState.cacheMB * MultiGetJNIBenchmarkState.MB;
+        valueLengths = new int[benchmarkState.batchSize];
+        Arrays.fill(valueLengths, valueSize);
+        arena = Arena.ofConfined();
+        valueLengthsMemorySegment = arena.allocate(ValueLayout.JAVA_INT.byteSize() * benchmarkState.batchSize);
+        memorySegmentCache.setup(batchValueSize, benchmarkState.cacheEntryOverhead, cacheSize,
+                                 benchmarkState.readChecksum, blackhole);
+      } else {
+        super.setup(benchmarkState, blackhole);
+      }
+    }
+
+    @TearDown
+    public void tearDown(final MultiGetJNIBenchmarkStateJava25 benchmarkState) {
+      if ("multiGetIntoMemorySegment".equals(benchmarkState.getCaller().benchmarkMethod)) {
+        memorySegmentCache.tearDown();
+        arena.close();
+      } else {
+        super.tearDown(benchmarkState);
+      }
+    }
+
+    MemorySegment resetValueLengthsMemorySegment() {
+      MemorySegment.copy(valueLengths, 0, valueLengthsMemorySegment, ValueLayout.JAVA_INT, 0, valueLengths.length);
+      return valueLengthsMemorySegment;
+    }
+  }
+
+  @Benchmark
+  public void multiGetIntoMemorySegment(MultiGetJNIBenchmarkStateJava25 benchmarkState,
+                                        MultiGetJNIThreadStateJava25 threadState, Blackhole blackhole) {
+    final var segment = threadState.memorySegmentCache.acquire();
+
+    try {
+      final var count = (int) MULTI_GET_INTO_MEMORY_SEGMENT_HANDLE.invokeExact(
+          benchmarkState.batchSize,
+          benchmarkState.keysMemorySegment, // Pre-allocated segment for all keys
+          benchmarkState.keyOffsetsMemorySegment,
+          benchmarkState.keyLengthsMemorySegment,
+          segment,
+          threadState.resetValueLengthsMemorySegment()
+      );
+      blackhole.consume(count);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+
+    threadState.memorySegmentCache.checksumBuffer(segment);
+    threadState.memorySegmentCache.release(segment);
+  }
+}
@@ -26,7 +26,9 @@
  */
 package com.evolvedbinary.jnibench.jmhbench;
 
+import com.evolvedbinary.jnibench.jmhbench.cache.ByteArrayCache;
 import com.evolvedbinary.jnibench.jmhbench.cache.MemorySegmentCache;
+import com.evolvedbinary.jnibench.jmhbench.common.ValueSizeCounters;
 import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.Linker;
@@ -43,6 +45,7 @@ import org.openjdk.jmh.infra.Blackhole;
 
 public class PutJNIBenchmarkJava25 extends PutJNIBenchmark {
   private static final MethodHandle PUT_FROM_MEMORY_SEGMENT_HANDLE;
+  private static final MethodHandle PUT_FROM_MEMORY_SEGMENT_CRITICAL_HANDLE;
 
   static {
     // 1. Initialize the Linker and Lookup
@@ -55,10 +58,23 @@ public class PutJNIBenchmarkJava25 extends PutJNIBenchmark {
                                                                                       FunctionDescriptor.of(
                                                                                           ValueLayout.JAVA_INT,
                                                                                           ValueLayout.ADDRESS,
+                                                                                          ValueLayout.JAVA_INT,
                                                                                           ValueLayout.ADDRESS,
                                                                                           ValueLayout.JAVA_INT)))
                                                  .orElseThrow();
 
+    // critical, so that heap segments can be passed without copying them off-heap
+    PUT_FROM_MEMORY_SEGMENT_CRITICAL_HANDLE = loaderLookup.find("putFromMemorySegment")
+                                                          .map(symbol -> linker.downcallHandle(symbol,
+                                                                                               FunctionDescriptor.of(
+                                                                                                   ValueLayout.JAVA_INT,
+                                                                                                   ValueLayout.ADDRESS,
+                                                                                                   ValueLayout.JAVA_INT,
+                                                                                                   ValueLayout.ADDRESS,
+                                                                                                   ValueLayout.JAVA_INT),
+                                                                                               Linker.Option.critical(
+                                                                                                   true)))
+                                                          .orElseThrow();
   }
 
   @State(Scope.Benchmark)
@@ -78,19 +94,26 @@ public class PutJNIBenchmarkJava25 extends PutJNIBenchmark {
       if (benchmarkArena != null) {
         benchmarkArena.close();
       }
+      super.tearDown();
     }
   }
 
   public static class PutJNIThreadStateJava25 extends PutJNIThreadState {
     private final MemorySegmentCache memorySegmentCache = new MemorySegmentCache();
+    private final ByteArrayCache byteArrayCache = new ByteArrayCache();
 
     @Setup
-    public void setup(final PutJNIBenchmarkStateJava25 benchmarkState, final Blackhole blackhole) {
+    public void setup(final PutJNIBenchmarkStateJava25 benchmarkState, final ValueSizeCounters valueSizeCounters,
+                      final Blackhole blackhole) {
       if (isPutFromMemorySegmentJava25(benchmarkState)) {
-        memorySegmentCache.setup(valueSize, cacheSize, benchmarkState.cacheEntryOverhead,
+        memorySegmentCache.setup(valueSize, benchmarkState.cacheEntryOverhead, cacheSize,
                                  benchmarkState.writePreparation, blackhole);
+      } else if (isPutFromHeapMemorySegmentCritical(benchmarkState)) {
+        byteArrayCache.setup(benchmarkState.valueSize, benchmarkState.cacheEntryOverhead,
+                             benchmarkState.cacheMB * PutJNIBenchmarkState.MB, benchmarkState.writePreparation,
+                             blackhole);
       } else {
-        super.setup(benchmarkState, blackhole);
+        super.setup(benchmarkState, valueSizeCounters, blackhole);
       }
     }
 
@@ -98,10 +121,16 @@ public class PutJNIBenchmarkJava25 extends PutJNIBenchmark {
       return "putFromMemorySegment".equals(benchmarkState.getCaller().benchmarkMethod);
     }
 
+    private static boolean isPutFromHeapMemorySegmentCritical(final PutJNIBenchmarkStateJava25 benchmarkState) {
+      return "putFromHeapMemorySegmentCritical".equals(benchmarkState.getCaller().benchmarkMethod);
+    }
+
     @TearDown
     public void tearDown(final PutJNIBenchmarkStateJava25 benchmarkState) {
       if (isPutFromMemorySegmentJava25(benchmarkState)) {
         memorySegmentCache.tearDown();
+      } else if (isPutFromHeapMemorySegmentCritical(benchmarkState)) {
+        byteArrayCache.tearDown();
       } else {
         super.tearDown(benchmarkState);
       }
@@ -117,6 +146,7 @@ public class PutJNIBenchmarkJava25 extends PutJNIBenchmark {
     try {
       final var size = (int) PUT_FROM_MEMORY_SEGMENT_HANDLE.invokeExact(
           benchmarkState.keyMemorySegment, // Pre-allocated segment for key
+          benchmarkState.keyBytes.length,
           segment,
           benchmarkState.valueSize
       );
@@ -127,4 +157,26 @@ public class PutJNIBenchmarkJava25 extends PutJNIBenchmark {
 
     threadState.memorySegmentCache.release(segment);
   }
+
+  @Benchmark
+  public void putFromHeapMemorySegmentCritical(PutJNIBenchmarkStateJava25 benchmarkState,
+                                               PutJNIThreadStateJava25 threadState, Blackhole blackhole) {
+    final byte[] array = threadState.byteArrayCache.acquire();
+    threadState.byteArrayCache.prepareBuffer(array, benchmarkState.fillByte);
+
+    try {
+      // the key and value stay on the heap, a critical downcall can address them directly
+      final var size = (int) PUT_FROM_MEMORY_SEGMENT_CRITICAL_HANDLE.invokeExact(
+          MemorySegment.ofArray(benchmarkState.keyBytes),
+          benchmarkState.keyBytes.length,
+          MemorySegment.ofArray(array),
+          benchmarkState.valueSize
+      );
+      blackhole.consume(size);
+    } catch (Throwable e) {
+      throw new RuntimeException(e);
+    }
+
+    threadState.byteArrayCache.release(array);
+  }
 }
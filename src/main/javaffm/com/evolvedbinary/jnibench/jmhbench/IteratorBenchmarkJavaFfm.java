@@ -1,5 +1,6 @@
 package com.evolvedbinary.jnibench.jmhbench;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.FunctionDescriptor;
 import java.lang.foreign.Linker;
@@ -7,13 +8,26 @@ import java.lang.foreign.MemorySegment;
 import java.lang.foreign.SymbolLookup;
 import java.lang.foreign.ValueLayout;
 import java.lang.invoke.MethodHandle;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
 
 public class IteratorBenchmarkJavaFfm extends IteratorBenchmark {
   private static final MethodHandle ITERATOR_CREATE_HANDLE;
   private static final MethodHandle ITERATOR_HAS_NEXT_HANDLE;
   private static final MethodHandle ITERATOR_NEXT_HANDLE;
+  private static final MethodHandle ITERATOR_NEXT_BATCH_HANDLE;
+  private static final MethodHandle ITERATOR_HAS_PREV_HANDLE;
+  private static final MethodHandle ITERATOR_PREV_HANDLE;
+  private static final MethodHandle ITERATOR_SEEK_HANDLE;
+  private static final MethodHandle ITERATOR_SEEK_FOR_PREV_HANDLE;
+  private static final MethodHandle ITERATOR_SET_UPPER_BOUND_HANDLE;
   private static final MethodHandle ITERATOR_DISPOSE_HANDLE;
 
   static {
@@ -23,12 +37,28 @@ public class IteratorBenchmarkJavaFfm extends IteratorBenchmark {
 
       ITERATOR_CREATE_HANDLE = findHandle(symbolLookup, linker, "iterator_create",
                                           FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT,
-                                                                ValueLayout.JAVA_LONG));
+                                                                ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT));
       ITERATOR_HAS_NEXT_HANDLE = findHandle(symbolLookup, linker, "iterator_has_next",
                                             FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
       ITERATOR_NEXT_HANDLE = findHandle(symbolLookup, linker, "iterator_next",
                                         FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS,
                                                               ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+      ITERATOR_NEXT_BATCH_HANDLE = findHandle(symbolLookup, linker, "iterator_next_batch",
+                                              FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS,
+                                                                    ValueLayout.ADDRESS, ValueLayout.JAVA_INT,
+                                                                    ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+      ITERATOR_HAS_PREV_HANDLE = findHandle(symbolLookup, linker, "iterator_has_prev",
+                                            FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS));
+      ITERATOR_PREV_HANDLE = findHandle(symbolLookup, linker, "iterator_prev",
+                                        FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS,
+                                                              ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+      ITERATOR_SEEK_HANDLE = findHandle(symbolLookup, linker, "iterator_seek",
+                                        FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+      ITERATOR_SEEK_FOR_PREV_HANDLE = findHandle(symbolLookup, linker, "iterator_seek_for_prev",
+                                                 FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_INT));
+      ITERATOR_SET_UPPER_BOUND_HANDLE = findHandle(symbolLookup, linker, "iterator_set_upper_bound",
+                                                   FunctionDescriptor.ofVoid(ValueLayout.ADDRESS,
+                                                                             ValueLayout.JAVA_INT));
       ITERATOR_DISPOSE_HANDLE = findHandle(symbolLookup, linker, "iterator_dispose",
                                            FunctionDescriptor.ofVoid(ValueLayout.ADDRESS));
     } catch (Exception e) {
@@ -45,6 +75,83 @@ public class IteratorBenchmarkJavaFfm extends IteratorBenchmark {
                     .orElse(null);
   }
 
+  @State(Scope.Thread)
+  public static class BatchStateFfm {
+    private Arena arena;
+    MemorySegment buffer;
+    MemorySegment lengths;
+    int capacity;
+    int maxCount;
+
+    @Setup
+    public void setup(final BenchmarkState benchmarkState) {
+      capacity = benchmarkState.batchCapacity();
+      maxCount = benchmarkState.maxBatchCount();
+      arena = Arena.ofConfined();
+      buffer = arena.allocate(capacity);
+      lengths = arena.allocate(ValueLayout.JAVA_INT.byteSize() * maxCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+      arena.close();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ElementStateFfm {
+    private Arena arena;
+    MemorySegment buffer;
+    int bufferSize;
+
+    @Setup
+    public void setup(final BenchmarkState benchmarkState) {
+      arena = Arena.ofConfined();
+      buffer = arena.allocate(benchmarkState.elementSize);
+      bufferSize = Math.toIntExact(buffer.byteSize());
+    }
+
+    @TearDown
+    public void tearDown() {
+      arena.close();
+    }
+  }
+
+  /**
+   * A native iterator created once per trial, for the iterateFfmScan, iterateFfmFlyweight, iterateBatchFfm and seek*Ffm
+   * benchmarks.
+   */
+  @State(Scope.Thread)
+  public static class ScanStateFfm {
+    MemorySegment iteratorHandle;
+    int numElements;
+
+    @Setup
+    public void setup(final BenchmarkState benchmarkState) throws Throwable {
+      if (ITERATOR_CREATE_HANDLE == null || ITERATOR_DISPOSE_HANDLE == null
+          || ITERATOR_SEEK_HANDLE == null || ITERATOR_SET_UPPER_BOUND_HANDLE == null) {
+        throw new RuntimeException("FFM not available");
+      }
+      iteratorHandle = (MemorySegment) ITERATOR_CREATE_HANDLE.invokeExact(
+          benchmarkState.numElements, benchmarkState.elementSize, benchmarkState.layout.ordinal());
+      numElements = benchmarkState.numElements;
+    }
+
+    /**
+     * @return the iterator, bounded to and positioned before all of its elements
+     */
+    MemorySegment rewind() throws Throwable {
+      ITERATOR_SET_UPPER_BOUND_HANDLE.invokeExact(iteratorHandle, numElements);
+      ITERATOR_SEEK_HANDLE.invokeExact(iteratorHandle, 0);
+      return iteratorHandle;
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+      ITERATOR_DISPOSE_HANDLE.invokeExact(iteratorHandle);
+    }
+  }
+
   @Benchmark
   public void iterateFfm(BenchmarkState benchmarkState, Blackhole blackhole) throws Throwable {
     if (ITERATOR_CREATE_HANDLE == null || ITERATOR_HAS_NEXT_HANDLE == null
@@ -55,7 +162,8 @@ public class IteratorBenchmarkJavaFfm extends IteratorBenchmark {
     MemorySegment iteratorHandle = null;
     try (Arena arena = Arena.ofConfined()) {
       iteratorHandle = (MemorySegment) ITERATOR_CREATE_HANDLE.invokeExact(benchmarkState.numElements,
-                                                                          benchmarkState.elementSize);
+                                                                          benchmarkState.elementSize,
+                                                                          benchmarkState.layout.ordinal());
       MemorySegment buffer = arena.allocate(benchmarkState.elementSize);
       int bufferSize = Math.toIntExact(buffer.byteSize());
 
@@ -74,4 +182,167 @@ public class IteratorBenchmarkJavaFfm extends IteratorBenchmark {
       }
     }
   }
+
+  /**
+   * As iterateFfm, but over an iterator created once per trial, so that it measures the scan alone,
+   * like the flyweight, mapped and batch benchmarks it is compared with.
+   */
+  @Benchmark
+  public void iterateFfmScan(ScanStateFfm scanState, ElementStateFfm elementState, Blackhole blackhole)
+      throws Throwable {
+    if (ITERATOR_HAS_NEXT_HANDLE == null || ITERATOR_NEXT_HANDLE == null) {
+      throw new RuntimeException("FFM not available");
+    }
+
+    final MemorySegment iteratorHandle = scanState.rewind();
+    final MemorySegment buffer = elementState.buffer;
+    final int bufferSize = elementState.bufferSize;
+    while (((int) ITERATOR_HAS_NEXT_HANDLE.invokeExact(iteratorHandle)) != 0) {
+      int bytesRead = (int) ITERATOR_NEXT_HANDLE.invokeExact(iteratorHandle, buffer, bufferSize);
+      if (bytesRead < 0) {
+        throw new IllegalStateException("Iterator exhausted unexpectedly");
+      }
+      byte[] result = new byte[bytesRead];
+      MemorySegment.copy(buffer, ValueLayout.JAVA_BYTE, 0, result, 0, bytesRead);
+      blackhole.consume(result);
+    }
+  }
+
+  /**
+   * As iterateFfmScan, but each element is consumed in place, by its first byte and length, from a reused segment,
+   * so nothing is allocated per element.
+   */
+  @Benchmark
+  public void iterateFfmFlyweight(ScanStateFfm scanState, ElementStateFfm elementState, Blackhole blackhole)
+      throws Throwable {
+    if (ITERATOR_HAS_NEXT_HANDLE == null || ITERATOR_NEXT_HANDLE == null) {
+      throw new RuntimeException("FFM not available");
+    }
+
+    final MemorySegment iteratorHandle = scanState.rewind();
+    final MemorySegment buffer = elementState.buffer;
+    final int bufferSize = elementState.bufferSize;
+    while (((int) ITERATOR_HAS_NEXT_HANDLE.invokeExact(iteratorHandle)) != 0) {
+      int bytesRead = (int) ITERATOR_NEXT_HANDLE.invokeExact(iteratorHandle, buffer, bufferSize);
+      if (bytesRead < 0) {
+        throw new IllegalStateException("Iterator exhausted unexpectedly");
+      }
+      blackhole.consume(bytesRead);
+      blackhole.consume(buffer.get(ValueLayout.JAVA_BYTE, 0));
+    }
+  }
+
+  /**
+   * The snapshot of SnapshotState, mapped once per trial as a MemorySegment, which is not limited to 2GB,
+   * and unmapped when its arena is closed.
+   */
+  @State(Scope.Thread)
+  public static class MappedStateFfm {
+    private Arena arena;
+    MemorySegment snapshot;
+
+    @Setup
+    public void setup(final SnapshotState snapshotState) throws IOException {
+      arena = Arena.ofConfined();
+      try (FileChannel channel = FileChannel.open(snapshotState.path, StandardOpenOption.READ)) {
+        snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, snapshotState.size, arena);
+      }
+    }
+
+    @TearDown
+    public void tearDown() {
+      arena.close();
+    }
+  }
+
+  /**
+   * As iterateMappedSnapshot, but the snapshot is a MemorySegment.
+   */
+  @Benchmark
+  public void iterateMappedFfm(MappedStateFfm mappedState, Blackhole blackhole) {
+    final MemorySegment snapshot = mappedState.snapshot;
+    final int count = snapshot.get(ValueLayout.JAVA_INT_UNALIGNED, 0);
+    long offset = Integer.BYTES;
+    for (int i = 0; i < count; i++) {
+      final int length = snapshot.get(ValueLayout.JAVA_INT_UNALIGNED, offset);
+      offset += Integer.BYTES;
+      blackhole.consume(i);
+      blackhole.consume(snapshot.get(ValueLayout.JAVA_BYTE, offset));
+      offset += length;
+    }
+  }
+
+  /**
+   * As seekScan, with each element read into a reused segment.
+   */
+  @Benchmark
+  public void seekScanFfm(BenchmarkState benchmarkState, ScanStateFfm scanState, ElementStateFfm elementState,
+                          Blackhole blackhole) throws Throwable {
+    if (ITERATOR_SEEK_HANDLE == null || ITERATOR_SET_UPPER_BOUND_HANDLE == null
+        || ITERATOR_HAS_NEXT_HANDLE == null || ITERATOR_NEXT_HANDLE == null) {
+      throw new RuntimeException("FFM not available");
+    }
+
+    final MemorySegment iteratorHandle = scanState.iteratorHandle;
+    final MemorySegment buffer = elementState.buffer;
+    final int bufferSize = elementState.bufferSize;
+    final int offset = ThreadLocalRandom.current().nextInt(benchmarkState.numElements);
+    ITERATOR_SET_UPPER_BOUND_HANDLE.invokeExact(iteratorHandle, offset + benchmarkState.scanLength);
+    ITERATOR_SEEK_HANDLE.invokeExact(iteratorHandle, offset);
+    while (((int) ITERATOR_HAS_NEXT_HANDLE.invokeExact(iteratorHandle)) != 0) {
+      int bytesRead = (int) ITERATOR_NEXT_HANDLE.invokeExact(iteratorHandle, buffer, bufferSize);
+      blackhole.consume(bytesRead);
+      blackhole.consume(buffer.get(ValueLayout.JAVA_BYTE, 0));
+    }
+  }
+
+  /**
+   * As seekForPrevScan, with each element read into a reused segment.
+   */
+  @Benchmark
+  public void seekForPrevScanFfm(BenchmarkState benchmarkState, ScanStateFfm scanState, ElementStateFfm elementState,
+                                 Blackhole blackhole) throws Throwable {
+    if (ITERATOR_SEEK_FOR_PREV_HANDLE == null || ITERATOR_HAS_PREV_HANDLE == null || ITERATOR_PREV_HANDLE == null) {
+      throw new RuntimeException("FFM not available");
+    }
+
+    final MemorySegment iteratorHandle = scanState.iteratorHandle;
+    final MemorySegment buffer = elementState.buffer;
+    final int bufferSize = elementState.bufferSize;
+    ITERATOR_SEEK_FOR_PREV_HANDLE.invokeExact(iteratorHandle,
+                                              ThreadLocalRandom.current().nextInt(benchmarkState.numElements));
+    for (int i = 0; i < benchmarkState.scanLength && ((int) ITERATOR_HAS_PREV_HANDLE.invokeExact(iteratorHandle)) != 0;
+         i++) {
+      int bytesRead = (int) ITERATOR_PREV_HANDLE.invokeExact(iteratorHandle, buffer, bufferSize);
+      blackhole.consume(bytesRead);
+      blackhole.consume(buffer.get(ValueLayout.JAVA_BYTE, 0));
+    }
+  }
+
+  /**
+   * Each element is consumed in place, by its first byte, rather than copied out.
+   */
+  @Benchmark
+  public void iterateBatchFfm(ScanStateFfm scanState, BatchStateFfm batchState, Blackhole blackhole)
+      throws Throwable {
+    if (ITERATOR_NEXT_BATCH_HANDLE == null) {
+      throw new RuntimeException("FFM not available");
+    }
+
+    final MemorySegment iteratorHandle = scanState.rewind();
+    final MemorySegment buffer = batchState.buffer;
+    final MemorySegment lengths = batchState.lengths;
+    int count;
+    while ((count = (int) ITERATOR_NEXT_BATCH_HANDLE.invokeExact(iteratorHandle, buffer, batchState.capacity,
+                                                                 lengths, batchState.maxCount)) > 0) {
+      long offset = 0;
+      for (int i = 0; i < count; i++) {
+        blackhole.consume(buffer.get(ValueLayout.JAVA_BYTE, offset));
+        offset += lengths.getAtIndex(ValueLayout.JAVA_INT, i);
+      }
+    }
+    if (count < 0) {
+      throw new IllegalStateException("Batch buffer is too small for the next element");
+    }
+  }
 }